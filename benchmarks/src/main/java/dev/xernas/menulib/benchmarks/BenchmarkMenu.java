@@ -0,0 +1,69 @@
+package dev.xernas.menulib.benchmarks;
+
+import dev.xernas.menulib.Menu;
+import dev.xernas.menulib.utils.InventorySize;
+import dev.xernas.menulib.utils.ItemBuilder;
+import net.kyori.adventure.text.Component;
+import org.bukkit.Material;
+import org.bukkit.entity.Player;
+import org.bukkit.event.inventory.InventoryClickEvent;
+import org.bukkit.event.inventory.InventoryCloseEvent;
+import org.jetbrains.annotations.NotNull;
+import org.jetbrains.annotations.Nullable;
+
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+
+/**
+ * A chest menu whose first slots hold clickable items, each one with its own id and handler.
+ */
+final class BenchmarkMenu extends Menu {
+    
+    private final int handlers;
+    
+    BenchmarkMenu(Player owner, int handlers) {
+        super(owner);
+        this.handlers = handlers;
+    }
+    
+    @Override
+    public @NotNull String getName() {
+        return "Benchmark";
+    }
+    
+    @Override
+    public @Nullable String getTexture() {
+        return null;
+    }
+    
+    @Override
+    public @NotNull InventorySize getInventorySize() {
+        return InventorySize.LARGEST;
+    }
+    
+    @Override
+    public void onInventoryClick(InventoryClickEvent e) {
+    }
+    
+    @Override
+    public void onClose(InventoryCloseEvent event) {
+    }
+    
+    @Override
+    public @NotNull Map<Integer, ItemBuilder> getContent() {
+        Map<Integer, ItemBuilder> content = new HashMap<>();
+        for (int slot = 0; slot < handlers; slot++) {
+            int index = slot;
+            content.put(slot, new ItemBuilder(this, Material.PAPER, itemMeta -> itemMeta.displayName(Component.text("§aItem #" + index)))
+                    .setItemId("item-" + index)
+                    .setOnClick(e -> e.getWhoClicked().getName()));
+        }
+        return content;
+    }
+    
+    @Override
+    public List<Integer> getTakableSlot() {
+        return List.of();
+    }
+}
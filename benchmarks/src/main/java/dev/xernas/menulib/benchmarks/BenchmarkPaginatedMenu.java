@@ -0,0 +1,86 @@
+package dev.xernas.menulib.benchmarks;
+
+import dev.xernas.menulib.PaginatedMenu;
+import dev.xernas.menulib.utils.InventorySize;
+import dev.xernas.menulib.utils.ItemBuilder;
+import dev.xernas.menulib.utils.StaticSlots;
+import net.kyori.adventure.text.Component;
+import org.bukkit.Material;
+import org.bukkit.entity.Player;
+import org.bukkit.event.inventory.InventoryClickEvent;
+import org.bukkit.event.inventory.InventoryCloseEvent;
+import org.bukkit.inventory.ItemStack;
+import org.jetbrains.annotations.NotNull;
+import org.jetbrains.annotations.Nullable;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Map;
+
+/**
+ * A bordered paginated menu listing a fixed number of named items, with previous and next page buttons.
+ */
+final class BenchmarkPaginatedMenu extends PaginatedMenu {
+    
+    private final List<ItemStack> items;
+    
+    BenchmarkPaginatedMenu(Player owner, int itemCount) {
+        super(owner);
+        this.items = new ArrayList<>(itemCount);
+        for (int i = 0; i < itemCount; i++) {
+            int index = i;
+            items.add(new ItemBuilder(this, Material.PAPER, itemMeta -> itemMeta.displayName(Component.text("§7Item #" + index))));
+        }
+    }
+    
+    @Override
+    public @NotNull String getName() {
+        return "Benchmark";
+    }
+    
+    @Override
+    public @Nullable String getTexture() {
+        return null;
+    }
+    
+    @Override
+    public @NotNull InventorySize getInventorySize() {
+        return InventorySize.LARGEST;
+    }
+    
+    @Override
+    public @Nullable Material getBorderMaterial() {
+        return Material.GRAY_STAINED_GLASS_PANE;
+    }
+    
+    @Override
+    public @NotNull List<Integer> getStaticSlots() {
+        return StaticSlots.getStandardSlots(getInventorySize());
+    }
+    
+    @Override
+    public List<ItemStack> getItems() {
+        return items;
+    }
+    
+    @Override
+    public Map<Integer, ItemBuilder> getButtons() {
+        return Map.of(
+                45, new ItemBuilder(this, Material.ARROW).setPreviousPageButton(),
+                53, new ItemBuilder(this, Material.ARROW).setNextPageButton()
+        );
+    }
+    
+    @Override
+    public void onInventoryClick(InventoryClickEvent e) {
+    }
+    
+    @Override
+    public void onClose(InventoryCloseEvent event) {
+    }
+    
+    @Override
+    public List<Integer> getTakableSlot() {
+        return List.of();
+    }
+}
@@ -0,0 +1,66 @@
+package dev.xernas.menulib.benchmarks;
+
+import dev.xernas.menulib.ClickLimiter;
+import dev.xernas.menulib.MenuLib;
+import org.bukkit.event.HandlerList;
+import org.bukkit.event.Listener;
+import org.bukkit.plugin.RegisteredListener;
+import org.mockbukkit.mockbukkit.MockBukkit;
+import org.mockbukkit.mockbukkit.ServerMock;
+import org.mockbukkit.mockbukkit.plugin.MockPlugin;
+
+/**
+ * In-process stand-in for the Bukkit server, backed by MockBukkit.
+ * Every benchmark state starts one server for the whole trial and stops it afterwards.
+ */
+final class BenchmarkServer {
+    
+    private final ServerMock server;
+    private final MockPlugin plugin;
+    
+    private BenchmarkServer(ServerMock server, MockPlugin plugin) {
+        this.server = server;
+        this.plugin = plugin;
+    }
+    
+    /**
+     * Starts a mock server and initializes MenuLib on a mock plugin.
+     * The click budget is disabled so that it does not skew the dispatch benchmarks.
+     *
+     * @return The started {@link BenchmarkServer}
+     */
+    static BenchmarkServer start() {
+        ServerMock server = MockBukkit.mock();
+        MockPlugin plugin = MockBukkit.createMockPlugin();
+        MenuLib.init(plugin);
+        MenuLib.getClickLimiter().configure(0, 1000L, ClickLimiter.Policy.CANCEL);
+        return new BenchmarkServer(server, plugin);
+    }
+    
+    /**
+     * Stops the mock server.
+     */
+    void stop() {
+        MockBukkit.unmock();
+    }
+    
+    ServerMock getServer() {
+        return server;
+    }
+    
+    /**
+     * Retrieves the {@link MenuLib} listener registered by {@link MenuLib#init(org.bukkit.plugin.java.JavaPlugin)},
+     * so that events can be dispatched to it without going through the plugin manager.
+     *
+     * @return The registered {@link MenuLib} instance
+     */
+    MenuLib getMenuLib() {
+        for (RegisteredListener registered : HandlerList.getRegisteredListeners(plugin)) {
+            Listener listener = registered.getListener();
+            if (listener instanceof MenuLib menuLib) {
+                return menuLib;
+            }
+        }
+        throw new IllegalStateException("MenuLib is not registered");
+    }
+}
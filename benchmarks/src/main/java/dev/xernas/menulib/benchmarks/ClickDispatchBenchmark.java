@@ -0,0 +1,53 @@
+package dev.xernas.menulib.benchmarks;
+
+import dev.xernas.menulib.MenuLib;
+import org.bukkit.event.inventory.ClickType;
+import org.bukkit.event.inventory.InventoryAction;
+import org.bukkit.event.inventory.InventoryClickEvent;
+import org.bukkit.event.inventory.InventoryType;
+import org.bukkit.inventory.InventoryView;
+import org.mockbukkit.mockbukkit.entity.PlayerMock;
+import org.openjdk.jmh.annotations.*;
+
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Measures the dispatch of a click by {@link MenuLib#onInventoryClick(InventoryClickEvent)}
+ * in an open menu holding a given number of clickable items. The clicked slot is the last clickable one.
+ */
+@BenchmarkMode(Mode.Throughput)
+@OutputTimeUnit(TimeUnit.MILLISECONDS)
+@Warmup(iterations = 3, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+@State(Scope.Benchmark)
+public class ClickDispatchBenchmark {
+    
+    @Param({"1", "9", "54"})
+    public int handlers;
+    
+    private BenchmarkServer server;
+    private MenuLib menuLib;
+    private InventoryView view;
+    
+    @Setup(Level.Trial)
+    public void setUp() {
+        server = BenchmarkServer.start();
+        menuLib = server.getMenuLib();
+        PlayerMock player = server.getServer().addPlayer();
+        new BenchmarkMenu(player, handlers).open();
+        view = player.getOpenInventory();
+    }
+    
+    @TearDown(Level.Trial)
+    public void tearDown() {
+        server.stop();
+    }
+    
+    @Benchmark
+    public boolean dispatchClick() {
+        InventoryClickEvent event = new InventoryClickEvent(view, InventoryType.SlotType.CONTAINER, handlers - 1, ClickType.LEFT, InventoryAction.PICKUP_ALL);
+        menuLib.onInventoryClick(event);
+        return event.isCancelled();
+    }
+}
@@ -0,0 +1,70 @@
+package dev.xernas.menulib.benchmarks;
+
+import dev.xernas.menulib.utils.ItemBuilder;
+import dev.xernas.menulib.utils.ItemUtils;
+import net.kyori.adventure.text.Component;
+import org.bukkit.Material;
+import org.bukkit.enchantments.Enchantment;
+import org.bukkit.inventory.ItemStack;
+import org.openjdk.jmh.annotations.*;
+
+import java.util.List;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Measures {@link ItemUtils#isSimilar(ItemStack, ItemStack)} on similar and different items,
+ * built either with {@link ItemBuilder} or as plain {@link ItemStack}s.
+ */
+@BenchmarkMode(Mode.Throughput)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Warmup(iterations = 3, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+@State(Scope.Benchmark)
+public class ItemUtilsBenchmark {
+    
+    private BenchmarkServer server;
+    private ItemStack builder;
+    private ItemStack similarBuilder;
+    private ItemStack differentBuilder;
+    private ItemStack stack;
+    private ItemStack similarStack;
+    
+    @Setup(Level.Trial)
+    public void setUp() {
+        server = BenchmarkServer.start();
+        builder = createBuilder("§aSword");
+        similarBuilder = createBuilder("§aSword");
+        differentBuilder = createBuilder("§cSword");
+        stack = new ItemStack(builder);
+        similarStack = new ItemStack(similarBuilder);
+    }
+    
+    @TearDown(Level.Trial)
+    public void tearDown() {
+        server.stop();
+    }
+    
+    @Benchmark
+    public boolean similarBuilders() {
+        return ItemUtils.isSimilar(builder, similarBuilder);
+    }
+    
+    @Benchmark
+    public boolean differentBuilders() {
+        return ItemUtils.isSimilar(builder, differentBuilder);
+    }
+    
+    @Benchmark
+    public boolean similarStacks() {
+        return ItemUtils.isSimilar(stack, similarStack);
+    }
+    
+    private static ItemStack createBuilder(String name) {
+        return new ItemBuilder(null, Material.DIAMOND_SWORD, itemMeta -> {
+            itemMeta.displayName(Component.text(name));
+            itemMeta.lore(List.of(Component.text("§7First line"), Component.text("§7Second line")));
+            itemMeta.addEnchant(Enchantment.SHARPNESS, 5, true);
+        }).setItemId("sword");
+    }
+}
@@ -0,0 +1,39 @@
+package dev.xernas.menulib.benchmarks;
+
+import dev.xernas.menulib.utils.ItemBuilder;
+import org.bukkit.Material;
+import org.openjdk.jmh.annotations.*;
+
+import java.util.Map;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Measures {@link dev.xernas.menulib.Menu#fill(Material)} on a menu of 54 slots.
+ */
+@BenchmarkMode(Mode.Throughput)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Warmup(iterations = 3, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+@State(Scope.Benchmark)
+public class MenuFillBenchmark {
+    
+    private BenchmarkServer server;
+    private BenchmarkMenu menu;
+    
+    @Setup(Level.Trial)
+    public void setUp() {
+        server = BenchmarkServer.start();
+        menu = new BenchmarkMenu(server.getServer().addPlayer(), 0);
+    }
+    
+    @TearDown(Level.Trial)
+    public void tearDown() {
+        server.stop();
+    }
+    
+    @Benchmark
+    public Map<Integer, ItemBuilder> fill() {
+        return menu.fill(Material.BLACK_STAINED_GLASS_PANE);
+    }
+}
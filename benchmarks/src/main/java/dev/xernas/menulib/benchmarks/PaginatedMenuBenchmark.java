@@ -0,0 +1,51 @@
+package dev.xernas.menulib.benchmarks;
+
+import dev.xernas.menulib.utils.ItemBuilder;
+import org.openjdk.jmh.annotations.*;
+
+import java.util.Map;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Measures {@link dev.xernas.menulib.PaginatedMenu#getContent()} on the first and the last page
+ * of datasets of several sizes.
+ */
+@BenchmarkMode(Mode.Throughput)
+@OutputTimeUnit(TimeUnit.MILLISECONDS)
+@Warmup(iterations = 3, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+@State(Scope.Benchmark)
+public class PaginatedMenuBenchmark {
+    
+    @Param({"45", "1000", "20000"})
+    public int items;
+    
+    private BenchmarkServer server;
+    private BenchmarkPaginatedMenu firstPage;
+    private BenchmarkPaginatedMenu lastPage;
+    
+    @Setup(Level.Trial)
+    public void setUp() {
+        server = BenchmarkServer.start();
+        firstPage = new BenchmarkPaginatedMenu(server.getServer().addPlayer(), items);
+        lastPage = new BenchmarkPaginatedMenu(server.getServer().addPlayer(), items);
+        lastPage.getContent();
+        lastPage.setPage(lastPage.getNumberOfPages());
+    }
+    
+    @TearDown(Level.Trial)
+    public void tearDown() {
+        server.stop();
+    }
+    
+    @Benchmark
+    public Map<Integer, ItemBuilder> getContentFirstPage() {
+        return firstPage.getContent();
+    }
+    
+    @Benchmark
+    public Map<Integer, ItemBuilder> getContentLastPage() {
+        return lastPage.getContent();
+    }
+}
@@ -0,0 +1,46 @@
+package dev.xernas.menulib.benchmarks;
+
+import dev.xernas.menulib.utils.InventorySize;
+import dev.xernas.menulib.utils.StaticSlots;
+import org.openjdk.jmh.annotations.*;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Measures the computation of the standard static slots and the removal of duplicate slots.
+ * This benchmark does not need a server.
+ */
+@BenchmarkMode(Mode.Throughput)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Warmup(iterations = 3, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+@State(Scope.Benchmark)
+public class StaticSlotsBenchmark {
+    
+    @Param({"SMALLEST", "NORMAL", "LARGEST"})
+    public InventorySize size;
+    
+    private List<Integer> slotsWithDuplicates;
+    
+    @Setup(Level.Trial)
+    public void setUp() {
+        slotsWithDuplicates = new ArrayList<>();
+        slotsWithDuplicates.addAll(StaticSlots.getTopSlots(size));
+        slotsWithDuplicates.addAll(StaticSlots.getBottomSlots(size));
+        slotsWithDuplicates.addAll(StaticSlots.getLeftSlots(size));
+        slotsWithDuplicates.addAll(StaticSlots.getRightSlots(size));
+    }
+    
+    @Benchmark
+    public List<Integer> getStandardSlots() {
+        return StaticSlots.getStandardSlots(size);
+    }
+    
+    @Benchmark
+    public List<Integer> removeRecurringIntegers() {
+        return StaticSlots.removeRecurringIntegers(slotsWithDuplicates, size.getSize());
+    }
+}
@@ -0,0 +1,202 @@
+package dev.xernas.menulib;
+
+import dev.xernas.menulib.utils.Decorations;
+import dev.xernas.menulib.utils.MenuScheduler;
+import net.kyori.adventure.text.Component;
+import org.bukkit.Material;
+import org.bukkit.entity.Player;
+import org.bukkit.inventory.ItemStack;
+import org.jetbrains.annotations.NotNull;
+
+import java.util.Collections;
+import java.util.List;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.function.Supplier;
+
+/**
+ * A {@link PaginatedMenu} whose pages are loaded asynchronously, for listings coming from
+ * a database or a slow computation.
+ * <p>
+ * The menu opens at once with {@link #getLoadingItem()} placeholders in its dynamic slots while
+ * {@link #loadPage(int, int)} runs off the main thread. The loaded items are then applied on the
+ * thread owning the player, through {@link MenuScheduler}, in one {@link #refresh()}. Switching pages cancels the load of the previous page,
+ * which interrupts its work when it runs through {@link #supplyAsync(Supplier)}.
+ */
+public abstract class AsyncPaginatedMenu extends PaginatedMenu {
+    
+    private static final ExecutorService EXECUTOR = Executors.newVirtualThreadPerTaskExecutor();
+    
+    private Page loadedPage;
+    private int loadedOffset = -1;
+    private int loadedLimit = -1;
+    private int totalCount = 0;
+    
+    private CompletableFuture<Page> pendingLoad;
+    private int pendingOffset = -1;
+    private int pendingLimit = -1;
+    private int generation = 0;
+    
+    /**
+     * Constructs a new AsyncPaginatedMenu for the specified player.
+     *
+     * @param owner The {@link Player} who owns the paginated menu
+     */
+    public AsyncPaginatedMenu(Player owner) {
+        super(owner);
+    }
+    
+    /**
+     * Loads a window of the items of the menu. This method is called on the main thread and must
+     * not block it: the work should run on another thread, for instance with {@link #supplyAsync(Supplier)}.
+     * The returned future is cancelled when the page is no longer needed. The future of {@link #supplyAsync(Supplier)}
+     * interrupts its work when cancelled; other implementations should stop their work on cancellation too.
+     *
+     * @param offset The index of the first item to load, starting from 0
+     * @param limit  The maximum number of items to load
+     * @return A {@link CompletableFuture} completed with the loaded {@link Page}
+     */
+    protected abstract CompletableFuture<Page> loadPage(int offset, int limit);
+    
+    /**
+     * Retrieves the item displayed in the dynamic slots while the current page is loading.
+     * By default, it is a shared decoration, see {@link Decorations}.
+     *
+     * @return The placeholder {@link ItemStack}
+     */
+    public ItemStack getLoadingItem() {
+        return Decorations.get(Material.GRAY_STAINED_GLASS_PANE, Component.text("§7Chargement..."), false);
+    }
+    
+    /**
+     * Retrieves the source of the items displayed in the menu. The source returns the loaded items of
+     * the current page, or placeholders while the page is loading, and starts loading missing pages.
+     *
+     * @return A non-null {@link PageSource} backed by {@link #loadPage(int, int)}
+     */
+    @Override
+    public final @NotNull PageSource getPageSource() {
+        return new PageSource() {
+            @Override
+            public int count() {
+                return totalCount;
+            }
+            
+            @Override
+            public @NotNull List<ItemStack> fetch(int offset, int limit) {
+                if (loadedPage != null && loadedOffset == offset && loadedLimit == limit) {
+                    return PageSource.window(loadedPage.items(), 0, limit);
+                }
+                requestPage(offset, limit);
+                return Collections.nCopies(limit, getLoadingItem());
+            }
+        };
+    }
+    
+    /**
+     * Discards the loaded page and loads it again, displaying placeholders in the meantime.
+     */
+    public final void reload() {
+        loadedPage = null;
+        loadedOffset = -1;
+        loadedLimit = -1;
+        cancelPendingLoad();
+        refresh();
+    }
+    
+    /**
+     * Checks if a page is currently being loaded.
+     *
+     * @return {@code true} if a load is in progress, {@code false} otherwise
+     */
+    public final boolean isLoading() {
+        return pendingLoad != null;
+    }
+    
+    /**
+     * Runs the given supplier on a virtual thread. Cancelling the returned future interrupts
+     * the thread running the supplier, or prevents it from running if it has not started yet.
+     *
+     * @param supplier The blocking work to run
+     * @param <T>      The type of the result
+     * @return A {@link CompletableFuture} completed with the result of the supplier
+     */
+    protected static <T> CompletableFuture<T> supplyAsync(Supplier<T> supplier) {
+        TaskFuture<T> future = new TaskFuture<>();
+        future.task = EXECUTOR.submit(() -> {
+            if (future.isDone()) return;
+            try {
+                future.complete(supplier.get());
+            } catch (Throwable throwable) {
+                future.completeExceptionally(throwable);
+            }
+        });
+        return future;
+    }
+    
+    private void requestPage(int offset, int limit) {
+        if (pendingLoad != null && pendingOffset == offset && pendingLimit == limit) return;
+        
+        cancelPendingLoad();
+        int requestGeneration = ++generation;
+        CompletableFuture<Page> load = loadPage(offset, limit);
+        pendingLoad = load;
+        pendingOffset = offset;
+        pendingLimit = limit;
+        
+        load.whenComplete((page, throwable) -> MenuScheduler.run(getOwner(), () -> {
+            if (requestGeneration != generation) return;
+            
+            pendingLoad = null;
+            if (throwable != null) {
+                MenuLib.getPlugin().getSLF4JLogger().error("An error occurred while loading a page of menu {}: {}", getName(), throwable.getMessage(), throwable);
+                return;
+            }
+            
+            loadedPage = page;
+            loadedOffset = offset;
+            loadedLimit = limit;
+            totalCount = page.totalCount();
+            refresh();
+        }));
+    }
+    
+    private void cancelPendingLoad() {
+        if (pendingLoad != null) {
+            pendingLoad.cancel(true);
+            pendingLoad = null;
+        }
+        generation++;
+    }
+    
+    /**
+     * A {@link CompletableFuture} which cancels the task computing it when it is cancelled,
+     * since cancelling a plain {@link CompletableFuture} never interrupts its computation.
+     *
+     * @param <T> The type of the result
+     */
+    private static final class TaskFuture<T> extends CompletableFuture<T> {
+        private volatile Future<?> task;
+        
+        @Override
+        public boolean cancel(boolean mayInterruptIfRunning) {
+            boolean cancelled = super.cancel(mayInterruptIfRunning);
+            Future<?> current = task;
+            if (cancelled && current != null) {
+                current.cancel(true);
+            }
+            return cancelled;
+        }
+    }
+    
+    /**
+     * A window of items loaded by {@link #loadPage(int, int)}.
+     *
+     * @param items      The items of the window
+     * @param totalCount The total number of items available for pagination
+     */
+    public record Page(List<ItemStack> items, int totalCount) {
+    }
+}
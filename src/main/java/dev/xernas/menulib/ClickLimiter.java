@@ -0,0 +1,217 @@
+package dev.xernas.menulib;
+
+import org.bukkit.event.inventory.ClickType;
+import org.bukkit.event.inventory.InventoryAction;
+import org.bukkit.event.inventory.InventoryClickEvent;
+import org.jetbrains.annotations.Nullable;
+
+import java.util.Map;
+import java.util.UUID;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicBoolean;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.concurrent.atomic.AtomicReference;
+
+/**
+ * Per-player click budget enforced by {@link MenuLib#onInventoryClick(InventoryClickEvent)}
+ * before any menu work happens, to protect menus from autoclickers and macros.
+ * <p>
+ * Each player may click at most {@link #getMaxClicks()} times per window of {@link #getWindowMillis()} milliseconds.
+ * Clicks over budget are cancelled, see {@link Policy}. Independently of the budget, a click is never
+ * dispatched while a previous click of the same player is still being handled.
+ * <p>
+ * Counters are lock-free, keyed by {@link UUID} and removed when the player quits.
+ * The limiter used by {@code MenuLib} is retrieved with {@link MenuLib#getClickLimiter()}, and does not
+ * limit clicks until it is configured.
+ */
+public final class ClickLimiter {
+    
+    private final Map<UUID, Budget> budgets = new ConcurrentHashMap<>();
+    
+    private volatile int maxClicks;
+    private volatile long windowNanos;
+    private volatile Policy policy;
+    
+    /**
+     * Constructs a new ClickLimiter.
+     *
+     * @param maxClicks    The maximum number of clicks per window, or 0 for no limit
+     * @param windowMillis The length of a window, in milliseconds
+     * @param policy       The {@link Policy} applied to clicks over budget
+     */
+    ClickLimiter(int maxClicks, long windowMillis, Policy policy) {
+        configure(maxClicks, windowMillis, policy);
+    }
+    
+    /**
+     * Changes the click budget. The new budget applies from the next window of each player.
+     *
+     * @param maxClicks    The maximum number of clicks per window, or 0 for no limit
+     * @param windowMillis The length of a window, in milliseconds, at least 1
+     * @param policy       The {@link Policy} applied to clicks over budget
+     * @throws IllegalArgumentException if {@code maxClicks} is negative or {@code windowMillis} is not positive
+     */
+    public void configure(int maxClicks, long windowMillis, Policy policy) {
+        if (maxClicks < 0) {
+            throw new IllegalArgumentException("The maximum number of clicks cannot be negative");
+        }
+        if (windowMillis < 1) {
+            throw new IllegalArgumentException("The click window must last at least 1 millisecond");
+        }
+        this.maxClicks = maxClicks;
+        this.windowNanos = TimeUnit.MILLISECONDS.toNanos(windowMillis);
+        this.policy = policy;
+    }
+    
+    /**
+     * Retrieves the maximum number of clicks a player may do per window.
+     *
+     * @return The maximum number of clicks, or 0 if clicks are not limited
+     */
+    public int getMaxClicks() {
+        return maxClicks;
+    }
+    
+    /**
+     * Retrieves the length of a window.
+     *
+     * @return The length of a window, in milliseconds
+     */
+    public long getWindowMillis() {
+        return TimeUnit.NANOSECONDS.toMillis(windowNanos);
+    }
+    
+    /**
+     * Retrieves the policy applied to clicks over budget.
+     *
+     * @return The {@link Policy} of the limiter
+     */
+    public Policy getPolicy() {
+        return policy;
+    }
+    
+    /**
+     * Consumes one click of the budget of a player.
+     *
+     * @param playerId The {@link UUID} of the player
+     * @return {@code true} if the click is within budget, {@code false} if it must be cancelled
+     */
+    boolean tryAcquire(UUID playerId) {
+        int max = maxClicks;
+        if (max == 0) return true;
+        
+        Budget budget = budgets.computeIfAbsent(playerId, k -> new Budget());
+        long now = System.nanoTime();
+        long start = budget.windowStart.get();
+        if (now - start >= windowNanos && budget.windowStart.compareAndSet(start, now)) {
+            budget.clicks.set(0);
+        }
+        return budget.clicks.incrementAndGet() <= max;
+    }
+    
+    /**
+     * Marks a player as handling a click.
+     *
+     * @param playerId The {@link UUID} of the player
+     * @return {@code true} if no other click of the player is being handled, {@code false} otherwise
+     */
+    boolean enter(UUID playerId) {
+        return budgets.computeIfAbsent(playerId, k -> new Budget()).handling.compareAndSet(false, true);
+    }
+    
+    /**
+     * Marks a player as no longer handling a click.
+     *
+     * @param playerId The {@link UUID} of the player
+     */
+    void exit(UUID playerId) {
+        Budget budget = budgets.get(playerId);
+        if (budget != null) {
+            budget.handling.set(false);
+        }
+    }
+    
+    /**
+     * Keeps a click over budget to dispatch it once the window of the player ends,
+     * replacing any click kept before. Only the slot and the kind of the click are kept,
+     * the event itself is left to Bukkit.
+     *
+     * @param playerId The {@link UUID} of the player
+     * @param e        The cancelled {@link InventoryClickEvent}
+     * @return {@code true} if no click was kept yet and a replay must be scheduled, {@code false} otherwise
+     */
+    boolean defer(UUID playerId, InventoryClickEvent e) {
+        DeferredClick click = new DeferredClick(e.getRawSlot(), e.getClick(), e.getAction(), e.getHotbarButton());
+        return budgets.computeIfAbsent(playerId, k -> new Budget()).deferred.getAndSet(click) == null;
+    }
+    
+    /**
+     * Takes the click kept for a player by {@link #defer(UUID, InventoryClickEvent)}.
+     *
+     * @param playerId The {@link UUID} of the player
+     * @return The kept {@link DeferredClick}, or {@code null} if there is none
+     */
+    @Nullable
+    DeferredClick takeDeferred(UUID playerId) {
+        Budget budget = budgets.get(playerId);
+        return budget == null ? null : budget.deferred.getAndSet(null);
+    }
+    
+    /**
+     * Retrieves the number of ticks until the current window of a player ends.
+     *
+     * @param playerId The {@link UUID} of the player
+     * @return The remaining number of ticks, at least 1
+     */
+    long getRemainingTicks(UUID playerId) {
+        Budget budget = budgets.get(playerId);
+        if (budget == null) return 1L;
+        
+        long remaining = windowNanos - (System.nanoTime() - budget.windowStart.get());
+        return Math.max(1L, (TimeUnit.NANOSECONDS.toMillis(remaining) + 49L) / 50L);
+    }
+    
+    /**
+     * Removes the counters of a player.
+     *
+     * @param playerId The {@link UUID} of the player
+     */
+    void remove(UUID playerId) {
+        budgets.remove(playerId);
+    }
+    
+    /**
+     * What happens to a click exceeding the budget of a player.
+     */
+    public enum Policy {
+        /**
+         * The click is cancelled and ignored.
+         */
+        CANCEL,
+        /**
+         * The click is cancelled, and the last click over budget of a window is dispatched
+         * once the window ends, if the player still views the same menu.
+         */
+        COALESCE
+    }
+    
+    /**
+     * A click kept by {@link #defer(UUID, InventoryClickEvent)}, replayed as a new {@link InventoryClickEvent}.
+     *
+     * @param rawSlot      The raw slot clicked
+     * @param click        The {@link ClickType} of the click
+     * @param action       The {@link InventoryAction} of the click
+     * @param hotbarButton The hotbar button pressed, or -1 if the click is not a number key click
+     */
+    record DeferredClick(int rawSlot, ClickType click, InventoryAction action, int hotbarButton) {
+    }
+    
+    private static final class Budget {
+        private final AtomicLong windowStart = new AtomicLong(System.nanoTime());
+        private final AtomicInteger clicks = new AtomicInteger();
+        private final AtomicBoolean handling = new AtomicBoolean();
+        private final AtomicReference<DeferredClick> deferred = new AtomicReference<>();
+    }
+}
@@ -0,0 +1,42 @@
+package dev.xernas.menulib;
+
+import dev.xernas.menulib.utils.Decorations;
+import dev.xernas.menulib.utils.ItemBuilder;
+
+import java.util.HashMap;
+
+/**
+ * Content map holding the shared, frozen items of {@link Decorations} as is.
+ * A frozen item is replaced by a copy of its own the first time it is retrieved
+ * with {@link #get(Object)} or {@link #getOrDefault(Object, ItemBuilder)}, so that callers can customize it,
+ * while the slots nobody retrieves keep sharing the same instance.
+ */
+final class DecorationMap extends HashMap<Integer, ItemBuilder> {
+    
+    private final Menu menu;
+    
+    /**
+     * Constructs a new DecorationMap.
+     *
+     * @param menu The {@link Menu} the copies are made for
+     */
+    DecorationMap(Menu menu) {
+        this.menu = menu;
+    }
+    
+    @Override
+    public ItemBuilder get(Object key) {
+        ItemBuilder item = super.get(key);
+        if (item == null || ! item.isFrozen()) return item;
+        
+        ItemBuilder copy = new ItemBuilder(menu, item);
+        super.put((Integer) key, copy);
+        return copy;
+    }
+    
+    @Override
+    public ItemBuilder getOrDefault(Object key, ItemBuilder defaultValue) {
+        ItemBuilder item = get(key);
+        return item != null || containsKey(key) ? item : defaultValue;
+    }
+}
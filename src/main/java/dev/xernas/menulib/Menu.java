@@ -1,7 +1,14 @@
 package dev.xernas.menulib;
 
+import dev.xernas.menulib.metrics.MenuMetrics;
+import dev.xernas.menulib.metrics.MenuOperation;
+import dev.xernas.menulib.metrics.SlowHandlerWatchdog;
+import dev.xernas.menulib.metrics.WatchedOperation;
+import dev.xernas.menulib.utils.Decorations;
 import dev.xernas.menulib.utils.InventorySize;
 import dev.xernas.menulib.utils.ItemBuilder;
+import dev.xernas.menulib.utils.ItemUtils;
+import dev.xernas.menulib.utils.MenuScheduler;
 import it.unimi.dsi.fastutil.objects.Object2ObjectMap;
 import it.unimi.dsi.fastutil.objects.Object2ObjectOpenHashMap;
 import net.kyori.adventure.text.Component;
@@ -15,14 +22,14 @@ import org.bukkit.inventory.InventoryHolder;
 import org.bukkit.inventory.ItemStack;
 import org.bukkit.persistence.PersistentDataContainer;
 import org.bukkit.persistence.PersistentDataType;
-import org.bukkit.plugin.Plugin;
 import org.jetbrains.annotations.NotNull;
 import org.jetbrains.annotations.Nullable;
 
-import java.util.HashMap;
+import java.util.Arrays;
 import java.util.List;
 import java.util.Map;
 import java.util.Objects;
+import java.util.concurrent.ConcurrentHashMap;
 import java.util.function.Consumer;
 
 /**
@@ -32,10 +39,20 @@ import java.util.function.Consumer;
  */
 public abstract class Menu implements InventoryHolder {
     
+    private static final int MAX_TITLES = 512;
+    private static final Map<TitleKey, Component> TITLES = new ConcurrentHashMap<>();
+    
     private final Object2ObjectMap<ItemBuilder, Consumer<InventoryClickEvent>> itemClickEvents = new Object2ObjectOpenHashMap<>();
+    private final Object2ObjectMap<String, Consumer<InventoryClickEvent>> renderedIdClickEvents = new Object2ObjectOpenHashMap<>();
+    private final Object2ObjectMap<String, Consumer<InventoryClickEvent>> registeredIdClickEvents = new Object2ObjectOpenHashMap<>();
     
     private final Player owner;
     
+    private Inventory inventory;
+    private RenderSnapshot snapshot;
+    private long[] displayedFingerprints;
+    private BackButton backButton;
+    
     /**
      * Constructs a new Menu for the specified player.
      *
@@ -119,43 +136,127 @@ public abstract class Menu implements InventoryHolder {
      */
     public abstract List<Integer> getTakableSlot();
     
+    /**
+     * Determines whether clicks that match neither a slot handler, nor an item id, nor an item of
+     * {@link #getItemClickEvents()} should fall back to comparing the clicked item against
+     * every item placed when the menu was last opened.
+     * <p>
+     * Handlers are normally dispatched by slot, from the table filled when the menu is opened.
+     * Override this method to return {@code true} if players can move clickable items around the menu,
+     * at the cost of a similarity check per placed item on every unmatched click.
+     *
+     * @return {@code true} to enable the similarity fallback, {@code false} otherwise
+     */
+    public boolean useSimilarityFallback() {
+        return false;
+    }
+    
     /**
      * Opens the menu for the owner player. If the menu specifies a required permission,
      * the method checks if the owner has the necessary permission. If not, a "no permission"
      * message is sent to the owner and the menu does not open.
      * <p>
-     * The inventory for the menu is created using {@link #getInventory()} and populated
-     * with items from {@link #getContent()}. The populated inventory is then opened for
-     * the owner player.
+     * The inventory of the menu, returned by {@link #getInventory()}, is populated
+     * with items from {@link #getContent()}, rendered into a new {@link RenderSnapshot}.
+     * The click handlers of the placed items replace the ones of the previous opening,
+     * bound to their slots and to their item ids, then the populated inventory is opened
+     * for the owner player.
+     * <p>
+     * When {@link MenuMetrics} are enabled, each phase of the opening is measured, see {@link MenuOperation}.
+     * <p>
+     * A {@link SharedMenu} has no owner and is opened with {@link SharedMenu#open(Player)} instead.
+     *
+     * @throws IllegalStateException if the menu has no owner
      */
     public final void open() {
+        if (owner == null) {
+            throw new IllegalStateException("A menu without owner must be opened for a viewer, see SharedMenu#open(Player)");
+        }
+        openFor(owner);
+    }
+    
+    /**
+     * Opens the menu for a player, such as a player going back to this menu from its history.
+     * A menu with an owner can only be opened for its owner, while a {@link SharedMenu}
+     * is opened for any player and tracks it as a viewer.
+     * This method must be called on the thread owning the player.
+     *
+     * @param viewer The {@link Player} to open the menu for
+     * @throws IllegalArgumentException if the menu has an owner and the player is not the owner
+     */
+    public void open(Player viewer) {
+        if (owner != null && ! owner.getUniqueId().equals(viewer.getUniqueId())) {
+            throw new IllegalArgumentException("This menu belongs to " + owner.getName() + " and cannot be opened for " + viewer.getName());
+        }
+        openFor(viewer);
+    }
+    
+    /**
+     * Opens the menu for a player, after checking the permission of the player and pushing the menu
+     * onto the player's history. A shared menu is only rendered and written if it never was since it was
+     * invalidated, so that opening it for another viewer costs no render.
+     *
+     * @param viewer The {@link Player} to open the menu for
+     */
+    final void openFor(Player viewer) {
+        long start = MenuMetrics.start();
         try {
+            long phase = start;
             if (getPermission() != null && ! getPermission().isEmpty()) {
-                if (! owner.hasPermission(getPermission())) {
-                    owner.sendMessage(getNoPermissionMessage());
+                if (! viewer.hasPermission(getPermission())) {
+                    viewer.sendMessage(getNoPermissionMessage());
                     return;
                 }
             }
+            phase = MenuMetrics.record(this, MenuOperation.OPEN_PERMISSION, phase);
             
-            Menu current = MenuLib.getCurrentLastMenu(owner);
+            Menu current = MenuLib.getCurrentLastMenu(viewer);
             if (current != this) {
-                MenuLib.pushMenu(owner, this);
+                MenuLib.pushMenu(viewer, this);
             }
             
             Inventory inventory = getInventory();
+            phase = MenuMetrics.record(this, MenuOperation.OPEN_INVENTORY, phase);
             
-            getContent().forEach((slot, item) -> {
-                setItem(owner, inventory, slot, item);
-            });
+            if (isShared()) {
+                synchronized (this) {
+                    if (snapshot == null || displayedFingerprints == null) {
+                        writeContents(inventory);
+                    }
+                }
+            } else {
+                writeContents(inventory);
+            }
+            phase = MenuMetrics.record(this, MenuOperation.OPEN_CONTENT, phase);
             
-            owner.openInventory(inventory);
+            viewer.openInventory(inventory);
+            MenuMetrics.record(this, MenuOperation.OPEN_VIEW, phase);
+            MenuMetrics.record(this, MenuOperation.OPEN, start);
         } catch (Exception e) {
             
-            owner.closeInventory();
+            viewer.closeInventory();
             e.printStackTrace();
         }
     }
     
+    /**
+     * Renders the menu into a new {@link RenderSnapshot} and writes all its slots to the inventory at once.
+     *
+     * @param inventory The {@link Inventory} of the menu
+     */
+    private void writeContents(Inventory inventory) {
+        snapshot = render();
+        
+        ItemBuilder[] contents = new ItemBuilder[inventory.getSize()];
+        long[] fingerprints = new long[contents.length];
+        for (int slot = 0; slot < contents.length; slot++) {
+            contents[slot] = snapshot.getItem(slot);
+            fingerprints[slot] = snapshot.getFingerprint(slot);
+        }
+        inventory.setContents(contents);
+        displayedFingerprints = fingerprints;
+    }
+    
     /**
      * Sets an item in the specified inventory at the given slot.
      * If the item is a "back button" and there is no previous menu for the player,
@@ -169,35 +270,114 @@ public abstract class Menu implements InventoryHolder {
      * @param item      The {@link ItemBuilder} representing the item to be placed in the inventory
      */
     public final void setItem(Player player, Inventory inventory, int slot, ItemBuilder item) {
-        if (item.isBackButton() && ! MenuLib.hasPreviousMenu(player)) return;
+        ItemBuilder resolved = resolveItem(player, item);
+        if (resolved == null) return;
+        
+        inventory.setItem(slot, resolved);
+    }
+    
+    /**
+     * Re-renders the menu and updates the slots of its inventory if the owner is viewing it,
+     * or, for a {@link SharedMenu}, if any player is viewing it.
+     * Only the slots whose item changed are written: a slot is left untouched when the fingerprint
+     * of its new item matches the one displayed and the item in the inventory still has the same type and amount.
+     * Items are never compared component by component, see {@link RenderSnapshot#getFingerprint(int)}.
+     * Slots that are takable and left empty by {@link #getContent()} keep the items the player put there.
+     * If the menu is not open, only the {@link RenderSnapshot} is rebuilt, and the inventory is written
+     * again on the next opening.
+     */
+    public final void refresh() {
+        snapshot = render();
         
-        if (item.isBackButton()) {
-            item = new ItemBuilder(this, item, itemMeta -> {
-                itemMeta.displayName(Component.text("§aRetour"));
-                itemMeta.lore(List.of(
-                        Component.text("§7Vous allez retourner au §a" +
-                                (MenuLib.getLastMenu(player) != null ? MenuLib.getLastMenu(player).getName() : "Menu Précédent") + "§7."),
-                        Component.text("§e§lCLIQUEZ ICI POUR CONFIRMER")
-                ));
-            }, true);
+        Inventory inventory = getOpenInventory();
+        if (inventory == null) {
+            displayedFingerprints = null;
+            return;
         }
         
-        inventory.setItem(slot, item);
+        long[] displayed = getDisplayedFingerprints();
+        for (int slot = 0; slot < snapshot.getSize(); slot++) {
+            ItemBuilder item = snapshot.getItem(slot);
+            if (item == null && snapshot.isTakable(slot)) continue;
+            
+            long fingerprint = snapshot.getFingerprint(slot);
+            if (displayed[slot] == fingerprint && isDisplayed(inventory.getItem(slot), item)) continue;
+            
+            inventory.setItem(slot, item);
+            displayed[slot] = fingerprint;
+        }
+    }
+    
+    /**
+     * Re-renders the menu and rewrites only the given slots of its inventory, without reopening it.
+     * Nothing is rendered if the owner is not viewing the menu.
+     *
+     * @param slots The slot indexes to rewrite
+     * @return {@code true} if the slots were rewritten, {@code false} if the menu is not open
+     */
+    final boolean refreshSlots(int[] slots) {
+        Inventory inventory = getOpenInventory();
+        if (inventory == null) return false;
+        
+        snapshot = render();
+        long[] displayed = getDisplayedFingerprints();
+        for (int slot : slots) {
+            if (slot >= 0 && slot < snapshot.getSize()) {
+                inventory.setItem(slot, snapshot.getItem(slot));
+                displayed[slot] = snapshot.getFingerprint(slot);
+            }
+        }
+        return true;
+    }
+    
+    /**
+     * Checks if the owner is currently viewing this menu, or, for a {@link SharedMenu}, if any player is viewing it.
+     *
+     * @return {@code true} if the menu is viewed, {@code false} otherwise
+     */
+    public final boolean isOpen() {
+        return getOpenInventory() != null;
+    }
+    
+    /**
+     * Drops the {@link RenderSnapshot} of the menu and its resolved back button, so the next click
+     * or call to {@link #getSnapshot()} renders {@link #getContent()} again. The items already displayed are left untouched.
+     */
+    public final void invalidate() {
+        snapshot = null;
+        backButton = null;
+    }
+    
+    /**
+     * Retrieves the {@link RenderSnapshot} taken when the menu was last opened or refreshed.
+     * If the menu was never rendered or was invalidated, it is rendered first.
+     *
+     * @return The current {@link RenderSnapshot} of the menu
+     */
+    @NotNull
+    public final RenderSnapshot getSnapshot() {
+        RenderSnapshot current = snapshot;
+        if (current == null) {
+            current = render();
+            snapshot = current;
+        }
+        return current;
     }
     
     /**
      * Fills the entire inventory with items made from the specified material.
-     * Each slot in the inventory is populated with an {@link ItemStack} that uses the
-     * provided material and has a blank name.
+     * Each slot in the inventory is populated with the shared {@link Decorations#filler(Material)}
+     * of the provided material, which has a blank name and a hidden tooltip. The filler of a slot is replaced
+     * by a copy the first time it is retrieved with {@link Map#get(Object)}, so that it can be customized.
      *
      * @param material The {@link Material} to use for creating {@link ItemStack}s to fill the inventory.
      * @return A {@link Map} where the key represents the inventory slot index, and the value is the {@link ItemStack} placed
      * in that slot.
      */
     public final Map<Integer, ItemBuilder> fill(Material material) {
-        Map<Integer, ItemBuilder> map = new HashMap<>();
+        Map<Integer, ItemBuilder> map = new DecorationMap(this);
+        ItemBuilder filler = Decorations.filler(material);
         for (int i = 0; i < getInventorySize().getSize(); i++) {
-            ItemBuilder filler = new ItemBuilder(this, material, itemMeta -> itemMeta.displayName(Component.text(" "))).hideTooltip(true);
             map.put(i, filler);
         }
         return map;
@@ -219,20 +399,55 @@ public abstract class Menu implements InventoryHolder {
     }
     
     /**
-     * Creates and returns the inventory associated with this menu.
-     * The inventory is created with the size specified by {@link #getInventorySize()}
-     * and named using {@link #getName()}. The menu itself is set as the inventory holder.
+     * Returns the inventory associated with this menu.
+     * The inventory is created on first access with the size specified by {@link #getInventorySize()}
+     * and named using {@link #getName()}, then the same instance is returned for the lifetime of the menu.
+     * The menu itself is set as the inventory holder.
      *
      * @return The inventory object for this menu
+     * @see #rebuildInventory()
      */
     @NotNull
     @Override
     public final Inventory getInventory() {
-        boolean pluginStatus = getPluginStatus("ItemsAdder") && getPluginStatus("PlaceholderAPI");
-        String title = pluginStatus && getTexture() != null && ! getTexture().isEmpty()
-                ? getTexture()
-                : getName();
-        return Bukkit.createInventory(this, getInventorySize().getSize(), Component.text(title));
+        Inventory current = inventory;
+        if (current == null) {
+            current = createInventory();
+            inventory = current;
+        }
+        return current;
+    }
+    
+    /**
+     * Discards the inventory of this menu so that it is created again with the current
+     * {@link #getInventorySize()} and title. This method must be called after the size,
+     * the name or the texture of the menu changed. The players viewing the menu
+     * are moved to the new inventory, each on the thread owning it.
+     */
+    public final void rebuildInventory() {
+        List<Player> viewers = getViewers();
+        inventory = null;
+        snapshot = null;
+        displayedFingerprints = null;
+        for (Player viewer : viewers) {
+            if (MenuScheduler.isOwnedByCurrentThread(viewer)) {
+                moveViewer(viewer);
+            } else {
+                MenuScheduler.run(viewer, () -> moveViewer(viewer));
+            }
+        }
+    }
+    
+    /**
+     * Moves a player viewing the previous inventory of the menu to the new one,
+     * unless the player closed the menu in the meantime.
+     *
+     * @param viewer The {@link Player} viewing the menu
+     */
+    private void moveViewer(Player viewer) {
+        if (! viewer.isOnline() || viewer.getOpenInventory().getTopInventory().getHolder(false) != this) return;
+        // A shared menu tracks the viewer again, who was removed when the previous inventory closed
+        open(viewer);
     }
     
     /**
@@ -240,6 +455,11 @@ public abstract class Menu implements InventoryHolder {
      * This map contains items that have specific actions defined for when they are clicked
      * in the inventory. Each entry in the map consists of an {@link ItemBuilder} as the key
      * and a {@link Consumer} that handles {@link InventoryClickEvent}s as the value.
+     * <p>
+     * Entries are kept across openings. When the menu is rendered, each entry is bound to the slots of the similar
+     * placed items that have no handler of their own nor an item id with a handler, so clicks never compare items.
+     * Registrations through {@link MenuLib#setItemClickEvent(Menu, ItemStack, Consumer)} are limited to the number
+     * of slots of the menu. Prefer {@link ItemBuilder#setOnClick(Consumer)} or an item id.
      *
      * @return An {@link Object2ObjectMap} where the key is an {@link ItemBuilder} and the value is a {@link Consumer}
      * that processes {@link InventoryClickEvent}s for that item.
@@ -248,17 +468,309 @@ public abstract class Menu implements InventoryHolder {
         return itemClickEvents;
     }
     
+    /**
+     * Registers a click event handler under the given item id, kept across openings.
+     * Registrations beyond the number of slots of the menu are ignored.
+     *
+     * @param itemId The id of the item, as stored by {@link ItemBuilder#setItemId(String)}
+     * @param e      The {@link Consumer} handling {@link InventoryClickEvent}s for that item
+     * @return {@code true} if the handler was registered, {@code false} if the registry is full
+     */
+    boolean registerItemClickEvent(String itemId, Consumer<InventoryClickEvent> e) {
+        if (registeredIdClickEvents.size() >= getInventorySize().getSize() && ! registeredIdClickEvents.containsKey(itemId)) {
+            return false;
+        }
+        registeredIdClickEvents.put(itemId, e);
+        return true;
+    }
+    
+    /**
+     * Registers a click event handler for items similar to the given one, kept across openings.
+     * Registrations beyond the number of slots of the menu are ignored. The {@link RenderSnapshot}
+     * is dropped, so the handler is bound to its slots by the next render.
+     *
+     * @param item The {@link ItemBuilder} the clicked items are compared to
+     * @param e    The {@link Consumer} handling {@link InventoryClickEvent}s for that item
+     * @return {@code true} if the handler was registered, {@code false} if the registry is full
+     */
+    boolean registerItemClickEvent(ItemBuilder item, Consumer<InventoryClickEvent> e) {
+        if (itemClickEvents.size() >= getInventorySize().getSize() && ! itemClickEvents.containsKey(item)) {
+            return false;
+        }
+        itemClickEvents.put(item, e);
+        snapshot = null;
+        return true;
+    }
+    
+    /**
+     * Retrieves the click event handler of an item id: the handler of a placed item carrying this id
+     * when the menu was last rendered, otherwise the handler registered with {@link #registerItemClickEvent(String, Consumer)}.
+     *
+     * @param itemId The id of the clicked item
+     * @return The {@link Consumer} of the id, or {@code null} if there is none
+     */
+    @Nullable
+    Consumer<InventoryClickEvent> getItemIdClickEvent(String itemId) {
+        Consumer<InventoryClickEvent> clickEvent = renderedIdClickEvents.get(itemId);
+        return clickEvent != null ? clickEvent : registeredIdClickEvents.get(itemId);
+    }
+    
+    /**
+     * Checks if any click event handler is bound to an item id.
+     *
+     * @return {@code true} if an item id has a handler, {@code false} otherwise
+     */
+    boolean hasItemIdClickEvents() {
+        return ! renderedIdClickEvents.isEmpty() || ! registeredIdClickEvents.isEmpty();
+    }
+    
+    /**
+     * Retrieves the click event handler bound to the given slot when the menu was last opened.
+     *
+     * @param slot The raw slot index of the click
+     * @return The {@link Consumer} bound to the slot, or {@code null} if the slot is outside the menu
+     * or has no handler
+     */
+    @Nullable
+    public Consumer<InventoryClickEvent> getSlotClickEvent(int slot) {
+        RenderSnapshot current = snapshot;
+        return current == null ? null : current.getClickEvent(slot);
+    }
+    
     /**
      * Retrieves the player who owns this menu.
      *
-     * @return The {@link Player} who is the owner of this menu
+     * @return The {@link Player} who is the owner of this menu, or {@code null} for a {@link SharedMenu}
      */
     public Player getOwner() {
         return owner;
     }
     
-    private boolean getPluginStatus(String name) {
-        Plugin plugin = Bukkit.getPluginManager().getPlugin(name);
-        return plugin != null && plugin.isEnabled();
+    /**
+     * Builds a {@link RenderSnapshot} from {@link #getContent()} and {@link #getTakableSlot()},
+     * replacing the click event handlers registered by the previous render.
+     *
+     * @return The new {@link RenderSnapshot}
+     */
+    private RenderSnapshot render() {
+        int size = getInventorySize().getSize();
+        ItemBuilder[] items = new ItemBuilder[size];
+        long[] fingerprints = new long[size];
+        byte[] flags = new byte[size];
+        Consumer<InventoryClickEvent>[] clickEvents = newClickEventTable(size);
+        
+        Map<Integer, ItemBuilder> content;
+        SlowHandlerWatchdog.Watch watch = SlowHandlerWatchdog.begin(this, WatchedOperation.CONTENT, -1, null);
+        try {
+            content = getContent();
+        } finally {
+            SlowHandlerWatchdog.end(watch);
+        }
+        
+        renderedIdClickEvents.clear();
+        for (Map.Entry<Integer, ItemBuilder> entry : content.entrySet()) {
+            int slot = entry.getKey();
+            if (slot < 0 || slot >= size) continue;
+            
+            ItemBuilder item = resolveItem(owner, entry.getValue());
+            if (item == null) continue;
+            
+            items[slot] = item;
+            fingerprints[slot] = RenderSnapshot.fingerprint(item);
+            if (item.isBackButton()) {
+                flags[slot] |= RenderSnapshot.BACK_BUTTON;
+            }
+            
+            Consumer<InventoryClickEvent> clickEvent = item.getClickEvent();
+            if (clickEvent != null) {
+                clickEvents[slot] = clickEvent;
+                flags[slot] |= RenderSnapshot.CLICK_EVENT;
+                String itemId = item.getItemId();
+                if (itemId != null) {
+                    renderedIdClickEvents.put(itemId, clickEvent);
+                }
+            }
+        }
+        
+        if (! itemClickEvents.isEmpty()) {
+            bindItemClickEvents(items, flags, clickEvents);
+        }
+        
+        List<Integer> takableSlots = getTakableSlot();
+        if (takableSlots != null) {
+            for (Integer slot : takableSlots) {
+                if (slot != null && slot >= 0 && slot < size) {
+                    flags[slot] |= RenderSnapshot.TAKABLE;
+                }
+            }
+        }
+        
+        return new RenderSnapshot(items, fingerprints, flags, clickEvents);
+    }
+    
+    /**
+     * Binds the handlers of {@link #getItemClickEvents()} to the slots of the similar placed items
+     * which have no handler of their own, so that clicks never compare items.
+     * A slot whose item id has a handler keeps it, as item ids take precedence.
+     *
+     * @param items       The placed items, by slot
+     * @param flags       The flags of each slot, updated in place
+     * @param clickEvents The handlers bound to each slot, updated in place
+     */
+    private void bindItemClickEvents(ItemBuilder[] items, byte[] flags, Consumer<InventoryClickEvent>[] clickEvents) {
+        for (int slot = 0; slot < items.length; slot++) {
+            ItemBuilder item = items[slot];
+            if (item == null || clickEvents[slot] != null) continue;
+            
+            String itemId = item.getItemId();
+            if (itemId != null && getItemIdClickEvent(itemId) != null) continue;
+            
+            for (Map.Entry<ItemBuilder, Consumer<InventoryClickEvent>> entry : itemClickEvents.entrySet()) {
+                if (ItemUtils.isSimilar(entry.getKey(), item)) {
+                    clickEvents[slot] = entry.getValue();
+                    flags[slot] |= RenderSnapshot.CLICK_EVENT;
+                    break;
+                }
+            }
+        }
+    }
+    
+    /**
+     * Retrieves the fingerprints of the items written to the inventory, indexed by slot.
+     * Slots never written by the menu hold a fingerprint that matches no item.
+     *
+     * @return The array of displayed fingerprints, updated in place by the callers
+     */
+    private long[] getDisplayedFingerprints() {
+        long[] displayed = displayedFingerprints;
+        if (displayed == null || displayed.length != snapshot.getSize()) {
+            displayed = new long[snapshot.getSize()];
+            Arrays.fill(displayed, RenderSnapshot.UNKNOWN_FINGERPRINT);
+            displayedFingerprints = displayed;
+        }
+        return displayed;
+    }
+    
+    /**
+     * Checks if the item found in the inventory still looks like the rendered item,
+     * by type and amount, to detect slots modified outside the menu.
+     *
+     * @param current The {@link ItemStack} currently in the inventory slot, may be {@code null}
+     * @param item    The rendered {@link ItemStack}, may be {@code null}
+     * @return {@code true} if both are empty or share the same type and amount, {@code false} otherwise
+     */
+    private static boolean isDisplayed(@Nullable ItemStack current, @Nullable ItemStack item) {
+        boolean currentEmpty = current == null || current.getType().isAir();
+        boolean itemEmpty = item == null || item.getType().isAir();
+        if (currentEmpty || itemEmpty) return currentEmpty == itemEmpty;
+        return current.getType() == item.getType() && current.getAmount() == item.getAmount();
+    }
+    
+    /**
+     * Resolves the item actually displayed for the given content item.
+     * A back button is hidden when the player has no previous menu, and otherwise
+     * customized, for this menu only, to indicate the menu it returns to. The customized button is
+     * kept by the menu and reused as long as the previous menu, its name and the content item look the same.
+     * The back buttons of a {@link SharedMenu}, which has no owner, are displayed as is.
+     *
+     * @param player The {@link Player} viewing the menu, or {@code null} for a shared menu
+     * @param item   The {@link ItemBuilder} from {@link #getContent()}
+     * @return The {@link ItemBuilder} to display, or {@code null} if nothing should be displayed
+     */
+    @Nullable
+    private ItemBuilder resolveItem(Player player, ItemBuilder item) {
+        if (item == null) return null;
+        if (! item.isBackButton() || player == null) return item;
+        
+        Menu previous = MenuLib.getLastMenu(player);
+        if (previous == null) return null;
+        
+        String previousName = previous.getName();
+        BackButton cached = backButton;
+        if (cached != null && cached.matches(previous, previousName, item)) {
+            return cached.resolved();
+        }
+        
+        ItemBuilder resolved = new ItemBuilder(this, item, itemMeta -> {
+            itemMeta.displayName(Component.text("§aRetour"));
+            itemMeta.lore(List.of(
+                    Component.text("§7Vous allez retourner au §a" + previousName + "§7."),
+                    Component.text("§e§lCLIQUEZ ICI POUR CONFIRMER")
+            ));
+        }, true);
+        backButton = new BackButton(previous, previousName, item.getType(), item.getAmount(), item.getSimilarityFingerprint(), resolved);
+        return resolved;
+    }
+    
+    /**
+     * Retrieves the inventory of this menu currently viewed by the owner.
+     *
+     * @return The top {@link Inventory} of the owner's open view if it belongs to this menu, otherwise {@code null}
+     */
+    @Nullable
+    Inventory getOpenInventory() {
+        Inventory top = owner.getOpenInventory().getTopInventory();
+        return top.getHolder(false) == this ? top : null;
+    }
+    
+    /**
+     * Retrieves the players currently viewing this menu.
+     *
+     * @return The owner if the owner is viewing the menu, otherwise an empty list
+     */
+    List<Player> getViewers() {
+        return isOpen() ? List.of(owner) : List.of();
+    }
+    
+    /**
+     * Checks if the menu is rendered once into an inventory shared by all its viewers.
+     *
+     * @return {@code true} for a {@link SharedMenu}, {@code false} otherwise
+     */
+    boolean isShared() {
+        return false;
+    }
+    
+    private Inventory createInventory() {
+        return Bukkit.createInventory(this, getInventorySize().getSize(), getTitle());
+    }
+    
+    /**
+     * Resolves the title of the inventory: the texture when the texture integration is enabled,
+     * see {@link MenuLib#isTextureIntegrationEnabled()}, otherwise the name of the menu.
+     * Resolved components are shared for a given menu type and title.
+     *
+     * @return The title {@link Component}
+     */
+    private Component getTitle() {
+        String texture = MenuLib.isTextureIntegrationEnabled() ? getTexture() : null;
+        String title = texture != null && ! texture.isEmpty() ? texture : getName();
+        TitleKey key = new TitleKey(getClass(), title);
+        Component component = TITLES.get(key);
+        if (component == null) {
+            component = Component.text(title);
+            if (TITLES.size() >= MAX_TITLES) {
+                TITLES.clear();
+            }
+            TITLES.put(key, component);
+        }
+        return component;
+    }
+    
+    @SuppressWarnings("unchecked")
+    private static Consumer<InventoryClickEvent>[] newClickEventTable(int size) {
+        return (Consumer<InventoryClickEvent>[]) new Consumer[size];
+    }
+    
+    private record TitleKey(Class<?> type, String title) {
+    }
+    
+    private record BackButton(Menu previous, String previousName, Material type, int amount, long fingerprint, ItemBuilder resolved) {
+        
+        private boolean matches(Menu previous, String previousName, ItemBuilder item) {
+            return this.previous == previous && Objects.equals(this.previousName, previousName)
+                    && type == item.getType() && amount == item.getAmount()
+                    && fingerprint == item.getSimilarityFingerprint();
+        }
     }
 }
\ No newline at end of file
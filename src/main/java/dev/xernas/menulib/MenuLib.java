@@ -1,18 +1,35 @@
 package dev.xernas.menulib;
 
+import dev.xernas.menulib.metrics.MenuMetrics;
+import dev.xernas.menulib.metrics.MenuOperation;
+import dev.xernas.menulib.metrics.SlowHandlerWatchdog;
+import dev.xernas.menulib.metrics.WatchedOperation;
+import dev.xernas.menulib.search.SearchPrompt;
+import dev.xernas.menulib.skull.SkullService;
+import dev.xernas.menulib.utils.DynamicItemEngine;
 import dev.xernas.menulib.utils.ItemBuilder;
 import dev.xernas.menulib.utils.ItemUtils;
+import dev.xernas.menulib.utils.MenuScheduler;
 import org.bukkit.Bukkit;
 import org.bukkit.NamespacedKey;
 import org.bukkit.entity.Player;
 import org.bukkit.event.EventHandler;
 import org.bukkit.event.Listener;
+import org.bukkit.event.inventory.ClickType;
 import org.bukkit.event.inventory.InventoryClickEvent;
 import org.bukkit.event.inventory.InventoryCloseEvent;
+import org.bukkit.event.inventory.InventoryType;
+import org.bukkit.event.player.PlayerQuitEvent;
+import org.bukkit.event.server.PluginDisableEvent;
+import org.bukkit.event.server.PluginEnableEvent;
+import org.bukkit.inventory.InventoryView;
 import org.bukkit.inventory.ItemStack;
+import org.bukkit.plugin.Plugin;
 import org.bukkit.plugin.java.JavaPlugin;
+import org.jetbrains.annotations.Nullable;
 
 import java.util.*;
+import java.util.concurrent.ConcurrentHashMap;
 import java.util.function.Consumer;
 
 /**
@@ -24,9 +41,18 @@ import java.util.function.Consumer;
  * allowing developers to define custom behavior for item clicks within menus.
  * <p>
  * The {@code MenuLib} class implements the {@link Listener} interface to handle inventory-related events.
+ * <p>
+ * The menu history of each player is keyed by {@link UUID}, bounded by {@link #getMaxHistoryDepth()},
+ * removed when the player quits, and safe to use from asynchronous tasks.
  */
 public final class MenuLib implements Listener {
-    private static final Map<Player, Deque<Menu>> menuHistory = new HashMap<>();
+    private static final Map<UUID, Deque<Menu>> menuHistory = new ConcurrentHashMap<>();
+    
+    private static volatile int maxHistoryDepth = 32;
+    
+    private static volatile boolean textureIntegrationEnabled;
+    
+    private static final ClickLimiter clickLimiter = new ClickLimiter(0, 1000L, ClickLimiter.Policy.CANCEL);
     
     private static NamespacedKey itemIdKey;
     
@@ -42,6 +68,7 @@ public final class MenuLib implements Listener {
         Bukkit.getPluginManager().registerEvents(this, plugin);
         itemIdKey = new NamespacedKey(plugin, "itemId");
         MenuLib.plugin = plugin;
+        updateTextureIntegration();
     }
     
     /**
@@ -61,6 +88,11 @@ public final class MenuLib implements Listener {
      * Associates a click event handler with a specific item in a given menu.
      * When a player clicks on the specified {@link ItemStack} in the menu,
      * the provided {@link Consumer} is executed to handle the {@link InventoryClickEvent}.
+     * <p>
+     * An {@link ItemBuilder} carries the handler to the slot it is placed in. The handler of an item having
+     * an item id is registered under this id, and the handler of any other item in {@link Menu#getItemClickEvents()},
+     * bound to the slots of the similar placed items when the menu is rendered. A menu holds at most as many
+     * registrations of each kind as it has slots.
      *
      * @param menu      The {@link Menu} in which the click event will be associated.
      * @param itemStack The {@link ItemStack} that will trigger the event when clicked.
@@ -68,7 +100,41 @@ public final class MenuLib implements Listener {
      *                  to be executed when the {@link ItemStack} is clicked within the menu.
      */
     public static void setItemClickEvent(Menu menu, ItemStack itemStack, Consumer<InventoryClickEvent> e) {
-        menu.getItemClickEvents().put(new ItemBuilder(menu, itemStack), e);
+        if (itemStack instanceof ItemBuilder itemBuilder) {
+            itemBuilder.setOnClick(e);
+            return;
+        }
+        
+        String itemId = ItemUtils.getItemId(itemStack);
+        boolean registered = itemId == null
+                ? menu.registerItemClickEvent(new ItemBuilder(menu, itemStack), e)
+                : menu.registerItemClickEvent(itemId, e);
+        if (! registered) {
+            plugin.getSLF4JLogger().warn("Cannot register more click events than slots in menu {}", menu.getName());
+        }
+    }
+    
+    /**
+     * Sets the maximum number of menus kept in the history of each player.
+     * When a menu is pushed onto a full history, the oldest menu is dropped.
+     * The default depth is 32.
+     *
+     * @param depth The maximum history depth, at least 1.
+     */
+    public static void setMaxHistoryDepth(int depth) {
+        if (depth < 1) {
+            throw new IllegalArgumentException("The maximum history depth must be at least 1");
+        }
+        maxHistoryDepth = depth;
+    }
+    
+    /**
+     * Retrieves the maximum number of menus kept in the history of each player.
+     *
+     * @return The maximum history depth.
+     */
+    public static int getMaxHistoryDepth() {
+        return maxHistoryDepth;
     }
     
     /**
@@ -79,18 +145,34 @@ public final class MenuLib implements Listener {
      * @param player The {@link Player} whose menu history is to be cleared.
      */
     public static void clearHistory(Player player) {
-        menuHistory.remove(player);
+        clearHistory(player.getUniqueId());
+    }
+    
+    /**
+     * Clears the menu history for the player with the given {@link UUID}.
+     *
+     * @param playerId The {@link UUID} of the player whose menu history is to be cleared.
+     */
+    public static void clearHistory(UUID playerId) {
+        menuHistory.remove(playerId);
     }
     
     /**
      * Pushes a new menu onto the player's menu history stack.
      * This allows tracking of the player's navigation through different menus.
+     * If the history is full, its oldest menu is dropped, see {@link #setMaxHistoryDepth(int)}.
      *
      * @param player The {@link Player} whose menu history is to be updated.
      * @param menu   The {@link Menu} to be added to the player's menu history.
      */
     public static void pushMenu(Player player, Menu menu) {
-        menuHistory.computeIfAbsent(player, k -> new ArrayDeque<>()).push(menu);
+        Deque<Menu> history = menuHistory.computeIfAbsent(player.getUniqueId(), k -> new ArrayDeque<>());
+        synchronized (history) {
+            while (history.size() >= maxHistoryDepth) {
+                history.pollLast();
+            }
+            history.push(menu);
+        }
     }
     
     /**
@@ -101,13 +183,15 @@ public final class MenuLib implements Listener {
      * @return The current {@link Menu} if available, otherwise {@code null}.
      */
     public static Menu getCurrentLastMenu(Player player) {
-        Deque<Menu> history = menuHistory.get(player);
+        Deque<Menu> history = menuHistory.get(player.getUniqueId());
         
-        if (history == null || history.isEmpty()) {
+        if (history == null) {
             return null;
         }
         
-        return history.peek();
+        synchronized (history) {
+            return history.peek();
+        }
     }
     
     /**
@@ -118,17 +202,23 @@ public final class MenuLib implements Listener {
      * @return The previous {@link Menu} if available, otherwise {@code null}.
      */
     public static Menu getLastMenu(Player player) {
-        Deque<Menu> history = menuHistory.get(player);
+        Deque<Menu> history = menuHistory.get(player.getUniqueId());
         
-        if (history == null || history.isEmpty() || history.size() < 2) {
+        if (history == null) {
             return null;
         }
         
-        Iterator<Menu> iterator = history.iterator();
-        
-        iterator.next();
-        
-        return iterator.next();
+        synchronized (history) {
+            if (history.size() < 2) {
+                return null;
+            }
+            
+            Iterator<Menu> iterator = history.iterator();
+            
+            iterator.next();
+            
+            return iterator.next();
+        }
     }
     
     /**
@@ -139,10 +229,13 @@ public final class MenuLib implements Listener {
      * @return The previous {@link Menu} if available, otherwise {@code null}.
      */
     public static Menu popAndGetPreviousMenu(Player player) {
-        Deque<Menu> history = menuHistory.get(player);
-        if (history == null || history.size() < 2) return null;
-        history.pop();
-        return history.peek();
+        Deque<Menu> history = menuHistory.get(player.getUniqueId());
+        if (history == null) return null;
+        synchronized (history) {
+            if (history.size() < 2) return null;
+            history.pop();
+            return history.peek();
+        }
     }
     
     /**
@@ -152,8 +245,33 @@ public final class MenuLib implements Listener {
      * @return {@code true} if the player has a previous menu, {@code false} otherwise.
      */
     public static boolean hasPreviousMenu(Player player) {
-        Deque<Menu> history = menuHistory.get(player);
-        return history != null && history.size() > 1;
+        Deque<Menu> history = menuHistory.get(player.getUniqueId());
+        if (history == null) return false;
+        synchronized (history) {
+            return history.size() > 1;
+        }
+    }
+    
+    /**
+     * Checks if the menu textures can be used as inventory titles, which requires both
+     * ItemsAdder and PlaceholderAPI to be enabled. The status is cached and updated
+     * when one of these plugins is enabled or disabled.
+     *
+     * @return {@code true} if ItemsAdder and PlaceholderAPI are enabled, {@code false} otherwise.
+     */
+    public static boolean isTextureIntegrationEnabled() {
+        return textureIntegrationEnabled;
+    }
+    
+    /**
+     * Retrieves the per-player click budget applied to every menu.
+     * By default, clicks are not limited, see {@link ClickLimiter#configure(int, long, ClickLimiter.Policy)}.
+     *
+     * @return The {@link ClickLimiter} used by {@code MenuLib}, configurable with
+     * {@link ClickLimiter#configure(int, long, ClickLimiter.Policy)}.
+     */
+    public static ClickLimiter getClickLimiter() {
+        return clickLimiter;
     }
     
     /**
@@ -178,7 +296,12 @@ public final class MenuLib implements Listener {
      * Handles click events in an inventory associated with a {@link Menu}.
      * This method ensures that clicks within the menu's inventory are canceled,
      * and delegates further handling to the menu's implementation of {@code onInventoryClick}.
-     * Additionally, it triggers any registered item-specific click event handlers.
+     * Additionally, it triggers the click event handler bound to the clicked slot, then falls back to the
+     * handler registered under the clicked item id, or to the handler of a similar item when the menu
+     * enables {@link Menu#useSimilarityFallback()}.
+     * <p>
+     * Before any menu work, the click is checked against the player's budget, see {@link #getClickLimiter()},
+     * and cancelled if the player exceeds it or is still handling a previous click.
      *
      * @param e The {@link InventoryClickEvent} representing the inventory interaction
      *          triggered by the player. Contains information about the clicked
@@ -194,34 +317,99 @@ public final class MenuLib implements Listener {
             return;
         }
         
-        if (menu.getTakableSlot().contains(e.getSlot())) {
+        Player player = (Player) e.getWhoClicked();
+        UUID playerId = player.getUniqueId();
+        if (! clickLimiter.tryAcquire(playerId)) {
+            e.setCancelled(true);
+            if (clickLimiter.getPolicy() == ClickLimiter.Policy.COALESCE && clickLimiter.defer(playerId, e)) {
+                MenuScheduler.runLater(player, () -> replayClick(player, menu), clickLimiter.getRemainingTicks(playerId));
+            }
             return;
         }
         
-        e.setCancelled(true);
-        menu.onInventoryClick(e);
+        dispatchClick(menu, e);
+    }
+    
+    /**
+     * Dispatches a click to a menu, unless the player is still handling a previous click.
+     *
+     * @param menu The {@link Menu} whose inventory was clicked
+     * @param e    The {@link InventoryClickEvent} to dispatch
+     */
+    private void dispatchClick(Menu menu, InventoryClickEvent e) {
+        UUID playerId = e.getWhoClicked().getUniqueId();
+        if (! clickLimiter.enter(playerId)) {
+            e.setCancelled(true);
+            return;
+        }
+        
+        long start = MenuMetrics.start();
+        try {
+            handleClick(menu, e);
+        } finally {
+            clickLimiter.exit(playerId);
+            MenuMetrics.record(menu, MenuOperation.CLICK, start);
+        }
+    }
+    
+    /**
+     * Dispatches the click coalesced for a player, if the player still views the menu.
+     *
+     * @param player The {@link Player} who clicked
+     * @param menu   The {@link Menu} the click was made in
+     */
+    private void replayClick(Player player, Menu menu) {
+        ClickLimiter.DeferredClick click = clickLimiter.takeDeferred(player.getUniqueId());
+        InventoryView view = player.getOpenInventory();
+        if (click == null || ! player.isOnline() || view.getTopInventory().getHolder(false) != menu) {
+            return;
+        }
         
-        ItemBuilder itemClicked = menu.getContent().get(e.getSlot());
+        // The click is replayed on the current content of the view, the original event being long gone
+        InventoryType.SlotType slotType = view.getSlotType(click.rawSlot());
+        InventoryClickEvent e = click.click() == ClickType.NUMBER_KEY
+                ? new InventoryClickEvent(view, slotType, click.rawSlot(), click.click(), click.action(), click.hotbarButton())
+                : new InventoryClickEvent(view, slotType, click.rawSlot(), click.click(), click.action());
+        if (e.getCurrentItem() == null) {
+            return;
+        }
+        dispatchClick(menu, e);
+    }
+    
+    private void handleClick(Menu menu, InventoryClickEvent e) {
+        RenderSnapshot snapshot = menu.getSnapshot();
+        if (snapshot.isTakable(e.getSlot())) {
+            return;
+        }
+        
+        e.setCancelled(true);
+        SlowHandlerWatchdog.Watch watch = SlowHandlerWatchdog.begin(menu, WatchedOperation.MENU_CLICK, e.getRawSlot(), e.getCurrentItem());
+        try {
+            menu.onInventoryClick(e);
+        } finally {
+            SlowHandlerWatchdog.end(watch);
+        }
         
-        if (itemClicked != null && itemClicked.isBackButton()) {
+        if (snapshot.isBackButton(e.getRawSlot())) {
             Player player = (Player) e.getWhoClicked();
             Menu previous = MenuLib.popAndGetPreviousMenu(player);
             if (previous != null) {
-                previous.open();
+                previous.open(player);
             }
             return;
         }
         
         try {
-            Map<ItemBuilder, Consumer<InventoryClickEvent>> itemClickEvents = menu.getItemClickEvents();
-            if (itemClickEvents.isEmpty()) {
+            Consumer<InventoryClickEvent> clickEvent = findClickEvent(menu, snapshot, e);
+            if (clickEvent == null) {
                 return;
             }
             
-            for (Map.Entry<ItemBuilder, Consumer<InventoryClickEvent>> entry : itemClickEvents.entrySet()) {
-                if (ItemUtils.isSimilar(entry.getKey(), e.getCurrentItem())) {
-                    entry.getValue().accept(e);
-                }
+            watch = SlowHandlerWatchdog.begin(menu, WatchedOperation.ITEM_CLICK, e.getRawSlot(), e.getCurrentItem());
+            try {
+                clickEvent.accept(e);
+            } finally {
+                SlowHandlerWatchdog.end(watch);
             }
         } catch (Exception ex) {
             plugin.getSLF4JLogger().error("An error occurred while handling a click event in a menu: {}", ex.getMessage(), ex);
@@ -229,7 +417,91 @@ public final class MenuLib implements Listener {
     }
     
     /**
-     * Handles the event that occurs when a player closes an inventory associated with a {@link Menu}.
+     * Finds the click event handler of a click: the handler bound to the clicked slot, including the handlers
+     * of {@link Menu#getItemClickEvents()} bound when rendering, then the handler bound to the clicked item id,
+     * then the handler of a similar placed item if the menu enables {@link Menu#useSimilarityFallback()}.
+     *
+     * @param menu     The {@link Menu} whose inventory was clicked
+     * @param snapshot The {@link RenderSnapshot} of the menu
+     * @param e        The {@link InventoryClickEvent} to handle
+     * @return The handler of the click, or {@code null} if there is none
+     */
+    @Nullable
+    private static Consumer<InventoryClickEvent> findClickEvent(Menu menu, RenderSnapshot snapshot, InventoryClickEvent e) {
+        Consumer<InventoryClickEvent> clickEvent = snapshot.getClickEvent(e.getRawSlot());
+        if (clickEvent != null) {
+            return clickEvent;
+        }
+        
+        if (menu.hasItemIdClickEvents()) {
+            String itemId = ItemUtils.getItemId(e.getCurrentItem());
+            clickEvent = itemId == null ? null : menu.getItemIdClickEvent(itemId);
+            if (clickEvent != null) {
+                return clickEvent;
+            }
+        }
+        
+        if (! menu.useSimilarityFallback()) {
+            return null;
+        }
+        
+        for (int slot = 0; slot < snapshot.getSize(); slot++) {
+            ItemBuilder item = snapshot.getItem(slot);
+            if (snapshot.hasClickEvent(slot) && ItemUtils.isSimilar(item, e.getCurrentItem())) {
+                return snapshot.getClickEvent(slot);
+            }
+        }
+        return null;
+    }
+    
+    /**
+     * Updates the texture integration status when ItemsAdder or PlaceholderAPI is enabled.
+     *
+     * @param e The {@link PluginEnableEvent} of the enabled plugin
+     */
+    @EventHandler
+    public void onPluginEnable(PluginEnableEvent e) {
+        if (isTextureIntegrationPlugin(e.getPlugin())) {
+            updateTextureIntegration();
+        }
+    }
+    
+    /**
+     * Disables the texture integration when ItemsAdder or PlaceholderAPI is disabled,
+     * and stops the {@link DynamicItemEngine} and the {@link SlowHandlerWatchdog} and saves the textures of the {@link SkullService}
+     * when the plugin using {@code MenuLib} is disabled.
+     *
+     * @param e The {@link PluginDisableEvent} of the disabled plugin
+     */
+    @EventHandler
+    public void onPluginDisable(PluginDisableEvent e) {
+        if (isTextureIntegrationPlugin(e.getPlugin())) {
+            // The event is called before the plugin is marked as disabled
+            textureIntegrationEnabled = false;
+        }
+        if (e.getPlugin() == plugin) {
+            DynamicItemEngine.stop();
+            SlowHandlerWatchdog.disable();
+            SkullService.save();
+        }
+    }
+    
+    /**
+     * Clears the menu history and the click counters of a player leaving the server, so that players
+     * disconnecting while a menu is open do not keep their menus in memory.
+     *
+     * @param e The {@link PlayerQuitEvent} of the leaving player
+     */
+    @EventHandler
+    public void onQuit(PlayerQuitEvent e) {
+        clearHistory(e.getPlayer());
+        clickLimiter.remove(e.getPlayer().getUniqueId());
+    }
+    
+    /**
+     * Handles the event that occurs when a player closes an inventory associated with a {@link Menu},
+     * and stops tracking the player as a viewer of a {@link SharedMenu}. The menu history of the player
+     * is cleared unless another menu or a {@link SearchPrompt} was opened in its place.
      */
     @EventHandler
     public void onClose(InventoryCloseEvent e) {
@@ -238,13 +510,34 @@ public final class MenuLib implements Listener {
         }
         
         if (e.getInventory().getHolder(false) instanceof Menu menu) {
+            long start = MenuMetrics.start();
             menu.onClose(e);
-            Bukkit.getScheduler().runTaskLater(plugin, () -> {
-                if (! (e.getPlayer().getOpenInventory().getTopInventory().getHolder() instanceof Menu)) {
-                    Player player = (Player) e.getPlayer();
+            Player player = (Player) e.getPlayer();
+            if (menu instanceof SharedMenu sharedMenu) {
+                sharedMenu.removeViewer(player);
+            }
+            MenuScheduler.runLater(player, () -> {
+                // A player typing in a search prompt comes back to the menu afterwards
+                if (! (player.getOpenInventory().getTopInventory().getHolder() instanceof Menu)
+                        && ! SearchPrompt.isPrompting(player)) {
                     MenuLib.clearHistory(player);
                 }
             }, 1L);
+            MenuMetrics.record(menu, MenuOperation.CLOSE, start);
         }
     }
+    
+    private static boolean isTextureIntegrationPlugin(Plugin plugin) {
+        String name = plugin.getName();
+        return name.equals("ItemsAdder") || name.equals("PlaceholderAPI");
+    }
+    
+    private static void updateTextureIntegration() {
+        textureIntegrationEnabled = isPluginEnabled("ItemsAdder") && isPluginEnabled("PlaceholderAPI");
+    }
+    
+    private static boolean isPluginEnabled(String name) {
+        Plugin plugin = Bukkit.getPluginManager().getPlugin(name);
+        return plugin != null && plugin.isEnabled();
+    }
 }
\ No newline at end of file
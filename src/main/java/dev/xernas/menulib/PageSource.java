@@ -0,0 +1,69 @@
+package dev.xernas.menulib;
+
+import org.bukkit.inventory.ItemStack;
+import org.jetbrains.annotations.NotNull;
+
+import java.util.Collections;
+import java.util.List;
+
+/**
+ * A windowed provider of the items displayed by a {@link PaginatedMenu}.
+ * Instead of materializing every item, a {@code PageSource} reports the total number of items
+ * and returns only the window of items displayed on the current page, so the cost of rendering
+ * a page does not depend on the size of the dataset.
+ */
+public interface PageSource {
+    
+    /**
+     * Retrieves the total number of items available for pagination.
+     *
+     * @return The total count of items
+     */
+    int count();
+    
+    /**
+     * Retrieves a window of items.
+     *
+     * @param offset The index of the first item to retrieve, starting from 0
+     * @param limit  The maximum number of items to retrieve
+     * @return A non-null {@link List} of at most {@code limit} items, empty if {@code offset} is past the last item
+     */
+    @NotNull
+    List<ItemStack> fetch(int offset, int limit);
+    
+    /**
+     * Creates a {@link PageSource} backed by the given list. The list is not copied,
+     * so later changes to it are reflected by the source.
+     *
+     * @param items The {@link List} of items to paginate
+     * @return A {@link PageSource} returning windows of the list
+     */
+    static PageSource of(List<? extends ItemStack> items) {
+        return new PageSource() {
+            @Override
+            public int count() {
+                return items.size();
+            }
+            
+            @Override
+            public @NotNull List<ItemStack> fetch(int offset, int limit) {
+                return window(items, offset, limit);
+            }
+        };
+    }
+    
+    /**
+     * Returns a view of the given window of a list, clamped to the bounds of the list.
+     *
+     * @param items  The {@link List} of items
+     * @param offset The index of the first item of the window
+     * @param limit  The maximum number of items in the window
+     * @return An unmodifiable view of the window, empty if the window is outside the list
+     */
+    static List<ItemStack> window(List<? extends ItemStack> items, int offset, int limit) {
+        if (items == null || offset < 0 || limit <= 0 || offset >= items.size()) {
+            return List.of();
+        }
+        return Collections.unmodifiableList(items.subList(offset, Math.min(items.size(), offset + limit)));
+    }
+}
@@ -1,17 +1,17 @@
 package dev.xernas.menulib;
 
+import dev.xernas.menulib.utils.Decorations;
 import dev.xernas.menulib.utils.InventorySize;
 import dev.xernas.menulib.utils.ItemBuilder;
-import dev.xernas.menulib.utils.ItemUtils;
+import dev.xernas.menulib.utils.SlotLayout;
 import dev.xernas.menulib.utils.StaticSlots;
-import net.kyori.adventure.text.Component;
 import org.bukkit.Material;
 import org.bukkit.entity.Player;
 import org.bukkit.inventory.ItemStack;
 import org.jetbrains.annotations.NotNull;
 import org.jetbrains.annotations.Nullable;
 
-import java.util.HashMap;
+import java.util.Arrays;
 import java.util.List;
 import java.util.Map;
 
@@ -26,6 +26,7 @@ public abstract class PaginatedMenu extends Menu {
     
     private int page = 0;
     private int numberOfPages;
+    private SlotLayout slotLayout;
     
     /**
      * Constructs a new PaginatedMenu for the specified player.
@@ -60,13 +61,62 @@ public abstract class PaginatedMenu extends Menu {
     @NotNull
     public abstract List<Integer> getStaticSlots();
     
+    /**
+     * Retrieves the {@link SlotLayout} splitting the menu into static and dynamic slots.
+     * By default, the layout is built once from {@link #getStaticSlots()} and kept while
+     * the inventory size does not change.
+     * <p>
+     * Override this method to return a shared layout, such as
+     * {@link SlotLayout#of(InventorySize, StaticSlots.Type)} or one built with {@link SlotLayout#fromPattern(String...)}.
+     *
+     * @return A non-null {@link SlotLayout} matching the inventory size of the menu.
+     */
+    @NotNull
+    public SlotLayout getSlotLayout() {
+        SlotLayout layout = slotLayout;
+        if (layout == null || layout.getSize() != getInventorySize().getSize()) {
+            layout = SlotLayout.of(getInventorySize(), getStaticSlots());
+            slotLayout = layout;
+        }
+        return layout;
+    }
+    
     /**
      * Retrieves the list of items to be displayed in the menu.
+     * This method is only used by the default {@link #getPageSource()}, menus providing
+     * their own {@link PageSource} do not need to override it.
      *
      * @return A non-null {@link List} of {@link ItemStack} instances representing the items
      * available for pagination in the menu.
      */
-    public abstract List<ItemStack> getItems();
+    public List<ItemStack> getItems() {
+        return List.of();
+    }
+    
+    /**
+     * Retrieves the source of the items displayed in the menu. The menu only fetches
+     * the window of items displayed on the current page.
+     * <p>
+     * By default, the source is an adapter counting items with {@link #getSizeOfItems()}
+     * and fetching windows of {@link #getItems()}. Override this method to paginate large
+     * datasets without materializing every item.
+     *
+     * @return A non-null {@link PageSource} providing the items of the menu.
+     */
+    @NotNull
+    public PageSource getPageSource() {
+        return new PageSource() {
+            @Override
+            public int count() {
+                return getSizeOfItems();
+            }
+            
+            @Override
+            public @NotNull List<ItemStack> fetch(int offset, int limit) {
+                return PageSource.window(getItems(), offset, limit);
+            }
+        };
+    }
     
     /**
      * Retrieves a mapping of button slots to their corresponding {@link ItemBuilder} instances
@@ -83,37 +133,39 @@ public abstract class PaginatedMenu extends Menu {
      * The method generates a mapping of slot indices to {@link ItemBuilder} instances,
      * including static slots, dynamic items for the current page, and any additional buttons.
      * <p>
-     * The static slots always contain either the specified border material or {@link Material#AIR}
-     * if no border material has been defined. Dynamic slots are populated with items based on
-     * pagination logic, and buttons are placed in the static slots if applicable.
+     * The static slots always contain either the shared {@link Decorations#border(Material)} of the specified
+     * border material or {@link Material#AIR} if no border material has been defined. Dynamic slots are populated with items based on
+     * pagination logic, and buttons are placed in the static slots if applicable. A border retrieved from the returned map
+     * with {@link Map#get(Object)} is copied first, so that it can be customized.
      *
      * @return A non-null {@link Map} where keys are slot indices (integers) and values are
      * {@link ItemBuilder} objects representing the items displayed in the menu for the current page.
      */
     @Override
     public final @NotNull Map<Integer, ItemBuilder> getContent() {
-        Map<Integer, ItemBuilder> map = new HashMap<>();
-        for (Integer staticSlot : getStaticSlots()) {
-            map.put(staticSlot, new ItemBuilder(this, ItemUtils.createItem(Component.text(" "), getBorderMaterial() == null ? Material.AIR : getBorderMaterial())));
+        Map<Integer, ItemBuilder> map = new DecorationMap(this);
+        SlotLayout layout = getSlotLayout();
+        Material borderMaterial = getBorderMaterial() == null ? Material.AIR : getBorderMaterial();
+        ItemBuilder border = Decorations.border(borderMaterial);
+        for (int i = 0; i < layout.getStaticCount(); i++) {
+            map.put(layout.getStaticSlot(i), border);
         }
-        List<Integer> staticSlots = StaticSlots.removeRecurringIntegers(getStaticSlots(), getInventorySize().getSize());
-        int maxItems = getInventorySize().getSize() - staticSlots.size();
-        numberOfPages = (int) Math.ceil((double) getSizeOfItems() / maxItems) - 1;
+        int maxItems = layout.getDynamicCount();
+        PageSource pageSource = getPageSource();
+        numberOfPages = maxItems <= 0 ? 0 : (int) Math.ceil((double) pageSource.count() / maxItems) - 1;
         
-        // Check if the page is out of bounds
-        int index = 0;
-        for (int i = 0; i < getInventory().getSize(); i++) {
-            if (!staticSlots.contains(i)) {
-                if (index + maxItems * page < getItems().size()) {
-                    map.put(i, new ItemBuilder(this, getItems().get(index + maxItems * page)));
-                    index++;
-                }
+        // Only the items of the current page are fetched
+        List<ItemStack> pageItems = maxItems <= 0 ? List.of() : pageSource.fetch(maxItems * page, maxItems);
+        for (int i = 0; i < maxItems && i < pageItems.size(); i++) {
+            ItemStack item = pageItems.get(i);
+            if (item != null) {
+                map.put(layout.getDynamicSlot(i), new ItemBuilder(this, item));
             }
         }
         
         if (getButtons() != null) {
             getButtons().forEach((integer, itemBuilder) -> {
-                if (staticSlots.contains(integer)) {
+                if (integer != null && layout.isStatic(integer)) {
                     map.put(integer, new ItemBuilder(this, itemBuilder, itemBuilder.isBackButton()));
                 }
             });
@@ -135,13 +187,15 @@ public abstract class PaginatedMenu extends Menu {
     
     /**
      * Retrieves the total number of items available for pagination in the menu.
-     * This method is used to calculate the number of pages required to display
-     * all items based on the inventory size and static slots.
+     * This method is used by the default {@link #getPageSource()} to calculate the number
+     * of pages required to display all items based on the inventory size and static slots.
      *
      * @return The total count of items (as an integer) that can be paginated
      * within the menu.
      */
-    public abstract int getSizeOfItems();
+    public int getSizeOfItems() {
+        return getItems().size();
+    }
     
     /**
      * Determines whether the current page is the last page in the paginated menu.
@@ -149,7 +203,7 @@ public abstract class PaginatedMenu extends Menu {
      * @return {@code true} if the current page is the last page, {@code false} otherwise.
      */
     public final boolean isLastPage() {
-        return page == numberOfPages;
+        return page >= numberOfPages;
     }
     
     /**
@@ -171,6 +225,45 @@ public abstract class PaginatedMenu extends Menu {
         this.page = page;
     }
     
+    /**
+     * Switches the menu to the given page in place. If the owner is viewing the menu,
+     * only the dynamic slots and the buttons of the already open inventory are rewritten,
+     * keeping the window, the cursor and the menu history intact. Otherwise, the menu is opened.
+     *
+     * @param page The page number to switch to.
+     */
+    public final void switchPage(int page) {
+        setPage(page);
+        if (! refreshSlots(getPageSlots())) {
+            open();
+        }
+    }
+    
+    /**
+     * Retrieves the slots rewritten when switching pages: every slot that is not static,
+     * plus the static slots holding a button.
+     *
+     * @return An array of slot indices.
+     */
+    private int[] getPageSlots() {
+        SlotLayout layout = getSlotLayout();
+        Map<Integer, ItemBuilder> buttons = getButtons();
+        int[] slots = new int[layout.getDynamicCount() + (buttons == null ? 0 : buttons.size())];
+        int count = 0;
+        for (int i = 0; i < layout.getDynamicCount(); i++) {
+            slots[count++] = layout.getDynamicSlot(i);
+        }
+        
+        if (buttons != null) {
+            for (Integer button : buttons.keySet()) {
+                if (button != null && layout.isStatic(button)) {
+                    slots[count++] = button;
+                }
+            }
+        }
+        return Arrays.copyOf(slots, count);
+    }
+    
     /**
      * Retrieves the total number of pages in the paginated menu.
      * This value is calculated based on the total number of items
@@ -0,0 +1,144 @@
+package dev.xernas.menulib;
+
+import dev.xernas.menulib.utils.ItemBuilder;
+import dev.xernas.menulib.utils.ItemUtils;
+import org.bukkit.event.inventory.InventoryClickEvent;
+import org.bukkit.inventory.ItemStack;
+import org.jetbrains.annotations.Nullable;
+
+import java.util.function.Consumer;
+
+/**
+ * An immutable view of a {@link Menu} as it was last rendered.
+ * A snapshot holds, for every slot of the menu, the placed item, its fingerprint and flags telling
+ * whether the slot holds a back button, is takable or has a click event handler.
+ * <p>
+ * Clicks and refreshes read the snapshot instead of rebuilding {@link Menu#getContent()}.
+ * It is replaced when the menu is opened or refreshed, and dropped by {@link Menu#invalidate()}.
+ */
+public final class RenderSnapshot {
+    
+    static final byte BACK_BUTTON = 1;
+    static final byte TAKABLE = 1 << 1;
+    static final byte CLICK_EVENT = 1 << 2;
+    
+    static final long EMPTY_FINGERPRINT = 0L;
+    static final long UNKNOWN_FINGERPRINT = Long.MIN_VALUE;
+    
+    private final ItemBuilder[] items;
+    private final long[] fingerprints;
+    private final byte[] flags;
+    private final Consumer<InventoryClickEvent>[] clickEvents;
+    
+    /**
+     * Constructs a new RenderSnapshot from arrays indexed by slot.
+     * The arrays are owned by the snapshot and must not be modified afterward.
+     *
+     * @param items        The items placed in each slot, {@code null} for empty slots
+     * @param fingerprints The fingerprints of the items placed in each slot, see {@link #fingerprint(ItemBuilder)}
+     * @param flags        The flags of each slot
+     * @param clickEvents  The click event handlers bound to each slot, {@code null} for slots without handler
+     */
+    RenderSnapshot(ItemBuilder[] items, long[] fingerprints, byte[] flags, Consumer<InventoryClickEvent>[] clickEvents) {
+        this.items = items;
+        this.fingerprints = fingerprints;
+        this.flags = flags;
+        this.clickEvents = clickEvents;
+    }
+    
+    /**
+     * Retrieves the number of slots covered by this snapshot.
+     *
+     * @return The size of the rendered inventory
+     */
+    public int getSize() {
+        return items.length;
+    }
+    
+    /**
+     * Retrieves the item placed in the given slot.
+     *
+     * @param slot The slot index
+     * @return The {@link ItemBuilder} placed in the slot, or {@code null} if the slot is empty or out of bounds
+     */
+    @Nullable
+    public ItemBuilder getItem(int slot) {
+        return inBounds(slot) ? items[slot] : null;
+    }
+    
+    /**
+     * Retrieves the fingerprint of the item placed in the given slot, computed when the snapshot was rendered.
+     * Items with equal type, amount and metadata have equal fingerprints, and items with equal
+     * fingerprints are considered displayed the same: only the components compared by
+     * {@link ItemUtils#isSimilar(ItemStack, ItemStack)} are covered.
+     *
+     * @param slot The slot index
+     * @return The fingerprint of the item, or the fingerprint of an empty slot if the slot is empty or out of bounds
+     */
+    public long getFingerprint(int slot) {
+        return inBounds(slot) ? fingerprints[slot] : EMPTY_FINGERPRINT;
+    }
+    
+    /**
+     * Retrieves the click event handler bound to the given slot.
+     *
+     * @param slot The slot index
+     * @return The {@link Consumer} bound to the slot, or {@code null} if the slot has no handler or is out of bounds
+     */
+    @Nullable
+    public Consumer<InventoryClickEvent> getClickEvent(int slot) {
+        return inBounds(slot) ? clickEvents[slot] : null;
+    }
+    
+    /**
+     * Checks if the given slot holds a back button.
+     *
+     * @param slot The slot index
+     * @return {@code true} if the slot holds a back button, {@code false} otherwise
+     */
+    public boolean isBackButton(int slot) {
+        return hasFlag(slot, BACK_BUTTON);
+    }
+    
+    /**
+     * Checks if the given slot is takable, as returned by {@link Menu#getTakableSlot()}.
+     *
+     * @param slot The slot index
+     * @return {@code true} if the slot is takable, {@code false} otherwise
+     */
+    public boolean isTakable(int slot) {
+        return hasFlag(slot, TAKABLE);
+    }
+    
+    /**
+     * Checks if the given slot has a click event handler.
+     *
+     * @param slot The slot index
+     * @return {@code true} if the slot has a click event handler, {@code false} otherwise
+     */
+    public boolean hasClickEvent(int slot) {
+        return hasFlag(slot, CLICK_EVENT);
+    }
+    
+    /**
+     * Computes the fingerprint of an item from its type, its amount and its
+     * {@link ItemBuilder#getSimilarityFingerprint() similarity fingerprint}, which is cached by the item.
+     *
+     * @param item The {@link ItemBuilder} to fingerprint, may be {@code null}
+     * @return The fingerprint of the item, {@link #EMPTY_FINGERPRINT} for an empty slot
+     */
+    static long fingerprint(@Nullable ItemBuilder item) {
+        if (item == null || item.getType().isAir()) return EMPTY_FINGERPRINT;
+        long fingerprint = item.getSimilarityFingerprint() * 0x9E3779B97F4A7C15L
+                + (((long) item.getType().ordinal() << 8) | item.getAmount());
+        return fingerprint == EMPTY_FINGERPRINT || fingerprint == UNKNOWN_FINGERPRINT ? 1L : fingerprint;
+    }
+    
+    private boolean hasFlag(int slot, byte flag) {
+        return inBounds(slot) && (flags[slot] & flag) != 0;
+    }
+    
+    private boolean inBounds(int slot) {
+        return slot >= 0 && slot < items.length;
+    }
+}
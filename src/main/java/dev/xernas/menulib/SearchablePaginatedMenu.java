@@ -0,0 +1,128 @@
+package dev.xernas.menulib;
+
+import dev.xernas.menulib.search.SearchIndex;
+import dev.xernas.menulib.search.SearchPrompt;
+import dev.xernas.menulib.search.SearchResult;
+import dev.xernas.menulib.utils.ItemBuilder;
+import net.kyori.adventure.text.Component;
+import org.bukkit.Material;
+import org.bukkit.entity.Player;
+import org.bukkit.inventory.ItemStack;
+import org.jetbrains.annotations.NotNull;
+
+import java.util.List;
+
+/**
+ * A {@link PaginatedMenu} whose items are the entries of a {@link SearchIndex} matching a query
+ * typed by the player in a {@link SearchPrompt}.
+ * <p>
+ * The index is usually shared by every menu of a catalog and updated incrementally when the catalog
+ * changes. The menu paginates the {@link SearchResult} of its query directly, so only the items of
+ * the current page are created, and the result follows the changes of the index.
+ * Place {@link #getSearchButton()} in {@link #getButtons()} to let the player search.
+ *
+ * @param <T> the type of the entries of the index
+ */
+public abstract class SearchablePaginatedMenu<T> extends PaginatedMenu {
+    
+    private String query = "";
+    private PageSource pageSource;
+    
+    /**
+     * Constructs a new SearchablePaginatedMenu for the specified player.
+     *
+     * @param owner The {@link Player} who owns the paginated menu
+     */
+    public SearchablePaginatedMenu(Player owner) {
+        super(owner);
+    }
+    
+    /**
+     * Retrieves the index searched by the menu.
+     *
+     * @return The {@link SearchIndex} of the entries
+     */
+    @NotNull
+    public abstract SearchIndex<T> getSearchIndex();
+    
+    /**
+     * Creates the item displayed for an entry. This method is only called for the entries of the current page.
+     *
+     * @param entry The entry to display
+     * @return The {@link ItemStack} representing the entry
+     */
+    @NotNull
+    public abstract ItemStack toItem(T entry);
+    
+    /**
+     * Retrieves the source of the items displayed in the menu: the entries matching the current query.
+     *
+     * @return A non-null {@link PageSource} backed by the {@link SearchResult} of the query
+     */
+    @Override
+    public final @NotNull PageSource getPageSource() {
+        PageSource source = pageSource;
+        if (source == null) {
+            source = getSearchIndex().search(query).asPageSource(this::toItem);
+            pageSource = source;
+        }
+        return source;
+    }
+    
+    /**
+     * Retrieves the current query of the menu.
+     *
+     * @return The query, empty if every entry is displayed
+     */
+    public String getQuery() {
+        return query;
+    }
+    
+    /**
+     * Changes the query of the menu and goes back to the first page. The menu must be opened
+     * or refreshed to display the new results.
+     *
+     * @param query The new query, {@code null} or empty to display every entry
+     */
+    public void setQuery(String query) {
+        this.query = query == null ? "" : query;
+        this.pageSource = null;
+        setPage(0);
+    }
+    
+    /**
+     * Asks the owner for a new query in a {@link SearchPrompt}, then opens the menu again with its results.
+     * Closing the prompt opens the menu again with its current query.
+     */
+    public void openSearchPrompt() {
+        SearchPrompt.open(getOwner(), "§8Rechercher", query, text -> {
+            setQuery(text);
+            open();
+        }, this::open);
+    }
+    
+    /**
+     * Creates the button opening the search prompt. Right-clicking it clears the query
+     * and updates the open menu in place.
+     *
+     * @return A new {@link ItemBuilder} showing the current query
+     */
+    public ItemBuilder getSearchButton() {
+        return new ItemBuilder(this, Material.OAK_SIGN, itemMeta -> {
+            itemMeta.displayName(Component.text("§eRechercher"));
+            itemMeta.lore(query.isEmpty()
+                    ? List.of(Component.text("§7Cliquez pour rechercher"))
+                    : List.of(
+                            Component.text("§7Recherche : §f" + query),
+                            Component.text("§7Clic droit pour effacer")
+                    ));
+        }).setItemId("search").setOnClick(e -> {
+            if (e.isRightClick() && ! query.isEmpty()) {
+                setQuery("");
+                refresh();
+            } else {
+                openSearchPrompt();
+            }
+        });
+    }
+}
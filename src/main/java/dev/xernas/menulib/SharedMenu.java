@@ -0,0 +1,141 @@
+package dev.xernas.menulib;
+
+import dev.xernas.menulib.utils.MenuScheduler;
+import org.bukkit.Bukkit;
+import org.bukkit.entity.Player;
+import org.bukkit.inventory.Inventory;
+import org.jetbrains.annotations.Nullable;
+
+import java.util.Collection;
+import java.util.List;
+import java.util.Map;
+import java.util.UUID;
+import java.util.concurrent.ConcurrentHashMap;
+
+/**
+ * A {@link Menu} rendered once into a single {@link Inventory} viewed by many players,
+ * such as a server-wide shop or a vote screen.
+ * <p>
+ * The menu has no owner: {@link #getOwner()} returns {@code null}, and {@link #getContent()} must not
+ * depend on the viewer. It is rendered and written when it is first opened, or opened again after
+ * {@link #invalidate()} or {@link #refresh()} while nobody was viewing it, so opening it for another
+ * viewer only opens the inventory. {@link #refresh()} writes the changed slots once for all viewers.
+ * <p>
+ * Per-player state stays per player: the permission of the menu is checked for each viewer, each viewer
+ * has its own history, and click handlers receive the {@link org.bukkit.event.inventory.InventoryClickEvent}
+ * of the player who clicked. Back buttons are displayed as is, since the previous menu differs between
+ * viewers, and return each viewer to its own previous menu.
+ * <p>
+ * Viewers are tracked when the menu is opened for them and forgotten by
+ * {@link MenuLib#onClose(org.bukkit.event.inventory.InventoryCloseEvent)}.
+ */
+public abstract class SharedMenu extends Menu {
+    
+    private final Map<UUID, Player> viewers = new ConcurrentHashMap<>();
+    
+    /**
+     * Constructs a new SharedMenu, without owner.
+     */
+    protected SharedMenu() {
+        super(null);
+    }
+    
+    /**
+     * Opens the menu for a player. If the menu specifies a required permission and the player
+     * does not have it, a "no permission" message is sent to the player and the menu does not open.
+     * This method must be called on the thread owning the player.
+     *
+     * @param viewer The {@link Player} to open the menu for
+     */
+    @Override
+    public final void open(Player viewer) {
+        openFor(viewer);
+        if (viewer.getOpenInventory().getTopInventory().getHolder(false) == this) {
+            viewers.put(viewer.getUniqueId(), viewer);
+        }
+    }
+    
+    /**
+     * Opens the menu for several players, each on the thread owning it. The menu is rendered at most once.
+     *
+     * @param players The players to open the menu for
+     */
+    public final void openForAll(Collection<? extends Player> players) {
+        for (Player player : players) {
+            if (MenuScheduler.isOwnedByCurrentThread(player)) {
+                open(player);
+            } else {
+                MenuScheduler.run(player, () -> open(player));
+            }
+        }
+    }
+    
+    /**
+     * Opens the menu for every online player, see {@link #openForAll(Collection)}.
+     */
+    public final void broadcast() {
+        openForAll(Bukkit.getOnlinePlayers());
+    }
+    
+    /**
+     * Closes the menu for every viewer, each on the thread owning it.
+     */
+    public final void closeForAll() {
+        for (Player viewer : viewers.values()) {
+            if (MenuScheduler.isOwnedByCurrentThread(viewer)) {
+                viewer.closeInventory();
+            } else {
+                MenuScheduler.run(viewer, viewer::closeInventory);
+            }
+        }
+    }
+    
+    /**
+     * Retrieves the players currently viewing this menu.
+     *
+     * @return An immutable list of the viewers
+     */
+    @Override
+    public final List<Player> getViewers() {
+        return List.copyOf(viewers.values());
+    }
+    
+    /**
+     * Retrieves the number of players currently viewing this menu.
+     *
+     * @return The number of viewers
+     */
+    public final int getViewerCount() {
+        return viewers.size();
+    }
+    
+    /**
+     * Checks if a player is currently viewing this menu.
+     *
+     * @param player The {@link Player} to check
+     * @return {@code true} if the player is a viewer of the menu, {@code false} otherwise
+     */
+    public final boolean isViewing(Player player) {
+        return viewers.containsKey(player.getUniqueId());
+    }
+    
+    /**
+     * Forgets a viewer who closed the menu.
+     *
+     * @param player The {@link Player} who closed the menu
+     */
+    final void removeViewer(Player player) {
+        viewers.remove(player.getUniqueId());
+    }
+    
+    @Override
+    @Nullable
+    final Inventory getOpenInventory() {
+        return viewers.isEmpty() ? null : getInventory();
+    }
+    
+    @Override
+    final boolean isShared() {
+        return true;
+    }
+}
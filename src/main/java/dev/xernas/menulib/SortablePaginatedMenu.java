@@ -0,0 +1,142 @@
+package dev.xernas.menulib;
+
+import dev.xernas.menulib.sort.SortIndex;
+import dev.xernas.menulib.utils.ItemBuilder;
+import net.kyori.adventure.text.Component;
+import org.bukkit.Material;
+import org.bukkit.entity.Player;
+import org.bukkit.inventory.ItemStack;
+import org.jetbrains.annotations.NotNull;
+
+import java.util.ArrayList;
+import java.util.List;
+
+/**
+ * A {@link PaginatedMenu} displaying the entries of a {@link SortIndex} in one of its named orders.
+ * <p>
+ * The index is usually shared by every menu of a listing and updated incrementally when the listing
+ * changes. Switching the order or the direction of the menu only reads another cached permutation,
+ * and only the items of the current page are created.
+ * Place {@link #getSortButton()} in {@link #getButtons()} to let the player change the order.
+ *
+ * @param <T> the type of the entries of the index
+ */
+public abstract class SortablePaginatedMenu<T> extends PaginatedMenu {
+    
+    private String order;
+    private boolean descending;
+    private PageSource pageSource;
+    
+    /**
+     * Constructs a new SortablePaginatedMenu for the specified player.
+     *
+     * @param owner The {@link Player} who owns the paginated menu
+     */
+    public SortablePaginatedMenu(Player owner) {
+        super(owner);
+    }
+    
+    /**
+     * Retrieves the index sorted by the menu.
+     *
+     * @return The {@link SortIndex} of the entries, with at least one order
+     */
+    @NotNull
+    public abstract SortIndex<T> getSortIndex();
+    
+    /**
+     * Creates the item displayed for an entry. This method is only called for the entries of the current page.
+     *
+     * @param entry The entry to display
+     * @return The {@link ItemStack} representing the entry
+     */
+    @NotNull
+    public abstract ItemStack toItem(T entry);
+    
+    /**
+     * Retrieves the source of the items displayed in the menu: the entries in the current order.
+     *
+     * @return A non-null {@link PageSource} backed by the {@link SortIndex}
+     */
+    @Override
+    public final @NotNull PageSource getPageSource() {
+        PageSource source = pageSource;
+        if (source == null) {
+            source = getSortIndex().view(getOrder(), descending, this::toItem);
+            pageSource = source;
+        }
+        return source;
+    }
+    
+    /**
+     * Retrieves the current order of the menu.
+     *
+     * @return The name of the order, by default the first order of the index
+     */
+    public String getOrder() {
+        if (order == null) {
+            order = getSortIndex().getOrderNames().getFirst();
+        }
+        return order;
+    }
+    
+    /**
+     * Checks if the current order is read from the greatest key.
+     *
+     * @return {@code true} if the order is descending, {@code false} otherwise
+     */
+    public boolean isDescending() {
+        return descending;
+    }
+    
+    /**
+     * Changes the order of the menu and goes back to the first page. The menu must be opened
+     * or refreshed to display the entries in the new order.
+     *
+     * @param order      The name of the order
+     * @param descending {@code true} to read the order from the greatest key, {@code false} otherwise
+     */
+    public void setOrder(String order, boolean descending) {
+        this.order = order;
+        this.descending = descending;
+        this.pageSource = null;
+        setPage(0);
+    }
+    
+    /**
+     * Switches to the next order of the index, in ascending direction.
+     */
+    public void nextOrder() {
+        List<String> orders = getSortIndex().getOrderNames();
+        int index = orders.indexOf(getOrder());
+        setOrder(orders.get((index + 1) % orders.size()), false);
+    }
+    
+    /**
+     * Creates the button changing the order. Left-clicking it switches to the next order,
+     * right-clicking it reverses the direction. The open menu is updated in place.
+     *
+     * @return A new {@link ItemBuilder} listing the orders
+     */
+    public ItemBuilder getSortButton() {
+        return new ItemBuilder(this, Material.HOPPER, itemMeta -> {
+            itemMeta.displayName(Component.text("§eTrier"));
+            List<Component> lore = new ArrayList<>();
+            for (String name : getSortIndex().getOrderNames()) {
+                boolean current = name.equals(getOrder());
+                String direction = descending ? " §7(décroissant)" : " §7(croissant)";
+                lore.add(Component.text(current ? "§a▶ " + name + direction : "§7  " + name));
+            }
+            lore.add(Component.text("§7Clic gauche pour changer de tri"));
+            lore.add(Component.text("§7Clic droit pour inverser l'ordre"));
+            itemMeta.lore(lore);
+        }).setItemId("sort").setOnClick(e -> {
+            if (e.isRightClick()) {
+                setOrder(getOrder(), ! descending);
+            } else {
+                nextOrder();
+            }
+            refresh();
+        });
+    }
+}
@@ -0,0 +1,121 @@
+package dev.xernas.menulib.metrics;
+
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.concurrent.atomic.AtomicLongArray;
+import java.util.concurrent.atomic.LongAdder;
+
+/**
+ * A lock-free histogram of latencies, in nanoseconds.
+ * <p>
+ * Latencies are counted in power-of-two buckets: bucket {@code i} counts the latencies in
+ * [2<sup>i</sup>, 2<sup>i+1</sup>) nanoseconds. Percentiles are therefore approximated by the
+ * upper bound of their bucket, which is at most twice the exact value.
+ */
+public final class LatencyHistogram {
+    
+    private static final int BUCKETS = 64;
+    
+    private final AtomicLongArray buckets = new AtomicLongArray(BUCKETS);
+    private final LongAdder count = new LongAdder();
+    private final LongAdder totalNanos = new LongAdder();
+    private final AtomicLong maxNanos = new AtomicLong();
+    
+    LatencyHistogram() {
+    }
+    
+    /**
+     * Records a latency.
+     *
+     * @param nanos the latency, in nanoseconds, negative values are counted as 0
+     */
+    void record(long nanos) {
+        long value = Math.max(0L, nanos);
+        buckets.getAndIncrement(bucketOf(value));
+        count.increment();
+        totalNanos.add(value);
+        if (value > maxNanos.get()) {
+            maxNanos.accumulateAndGet(value, Math::max);
+        }
+    }
+    
+    /**
+     * Retrieves the number of recorded latencies.
+     *
+     * @return the count of recorded latencies
+     */
+    public long getCount() {
+        return count.sum();
+    }
+    
+    /**
+     * Retrieves the sum of the recorded latencies.
+     *
+     * @return the total latency, in nanoseconds
+     */
+    public long getTotalNanos() {
+        return totalNanos.sum();
+    }
+    
+    /**
+     * Retrieves the highest recorded latency.
+     *
+     * @return the maximum latency, in nanoseconds, or 0 if nothing was recorded
+     */
+    public long getMaxNanos() {
+        return maxNanos.get();
+    }
+    
+    /**
+     * Retrieves the mean of the recorded latencies.
+     *
+     * @return the mean latency, in nanoseconds, or 0 if nothing was recorded
+     */
+    public double getMeanNanos() {
+        long recorded = getCount();
+        return recorded == 0 ? 0 : (double) getTotalNanos() / recorded;
+    }
+    
+    /**
+     * Retrieves an approximation of a percentile of the recorded latencies.
+     *
+     * @param percentile the percentile, between 0 and 100
+     * @return the upper bound of the bucket holding the percentile, in nanoseconds, capped by
+     * {@link #getMaxNanos()}, or 0 if nothing was recorded
+     */
+    public long getPercentileNanos(double percentile) {
+        long[] snapshot = new long[BUCKETS];
+        long recorded = 0;
+        for (int i = 0; i < BUCKETS; i++) {
+            snapshot[i] = buckets.get(i);
+            recorded += snapshot[i];
+        }
+        if (recorded == 0) return 0;
+        
+        long rank = Math.max(1L, (long) Math.ceil(recorded * Math.min(100.0, Math.max(0.0, percentile)) / 100.0));
+        long seen = 0;
+        for (int i = 0; i < BUCKETS; i++) {
+            seen += snapshot[i];
+            if (seen >= rank) {
+                long upperBound = i >= 62 ? Long.MAX_VALUE : (1L << (i + 1)) - 1;
+                return Math.min(upperBound, getMaxNanos());
+            }
+        }
+        return getMaxNanos();
+    }
+    
+    /**
+     * Clears the recorded latencies.
+     */
+    void reset() {
+        for (int i = 0; i < BUCKETS; i++) {
+            buckets.set(i, 0L);
+        }
+        count.reset();
+        totalNanos.reset();
+        maxNanos.set(0L);
+    }
+    
+    private static int bucketOf(long nanos) {
+        return nanos == 0 ? 0 : 63 - Long.numberOfLeadingZeros(nanos);
+    }
+}
@@ -0,0 +1,127 @@
+package dev.xernas.menulib.metrics;
+
+import dev.xernas.menulib.Menu;
+import dev.xernas.menulib.MenuLib;
+import io.papermc.paper.plugin.lifecycle.event.types.LifecycleEvents;
+import org.jetbrains.annotations.Nullable;
+
+import java.util.ArrayList;
+import java.util.Comparator;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+
+/**
+ * Per-menu-class counters and latency histograms of the {@link MenuOperation}s of MenuLib.
+ * <p>
+ * Metrics are disabled by default. While disabled, measuring an operation costs a single volatile read.
+ * Recording is lock-free, so it can be enabled on a production server to find the menu classes
+ * costing tick time, either through this class or through the {@code /menulib stats} command,
+ * see {@link #registerCommand()}.
+ */
+public final class MenuMetrics {
+    
+    private static final Map<Class<? extends Menu>, MenuStats> STATS = new ConcurrentHashMap<>();
+    
+    private static volatile boolean enabled;
+    
+    private MenuMetrics() {
+    }
+    
+    /**
+     * Starts recording metrics.
+     */
+    public static void enable() {
+        enabled = true;
+    }
+    
+    /**
+     * Stops recording metrics. The metrics already recorded are kept.
+     */
+    public static void disable() {
+        enabled = false;
+    }
+    
+    /**
+     * Checks if metrics are recorded.
+     *
+     * @return {@code true} if metrics are recorded, {@code false} otherwise
+     */
+    public static boolean isEnabled() {
+        return enabled;
+    }
+    
+    /**
+     * Starts measuring an operation.
+     *
+     * @return the start timestamp to pass to {@link #record(Menu, MenuOperation, long)}, or 0 if metrics are disabled
+     */
+    public static long start() {
+        return enabled ? System.nanoTime() : 0L;
+    }
+    
+    /**
+     * Records the latency of an operation started with {@link #start()}.
+     * The returned timestamp can be used as the start of the next operation, to measure consecutive phases.
+     *
+     * @param menu      the measured menu
+     * @param operation the measured operation
+     * @param start     the start timestamp of the operation
+     * @return the end timestamp of the operation, or 0 if the operation was started while metrics were disabled
+     */
+    public static long record(Menu menu, MenuOperation operation, long start) {
+        if (start == 0L) return 0L;
+        
+        long now = System.nanoTime();
+        getOrCreateStats(menu.getClass()).record(operation, now - start);
+        return now;
+    }
+    
+    /**
+     * Retrieves the metrics of a menu class.
+     *
+     * @param menuType the menu class
+     * @return the {@link MenuStats} of the menu class, or {@code null} if nothing was recorded for it
+     */
+    @Nullable
+    public static MenuStats getStats(Class<? extends Menu> menuType) {
+        return STATS.get(menuType);
+    }
+    
+    /**
+     * Retrieves the metrics of every menu class, the costliest first.
+     *
+     * @return a new list of {@link MenuStats} sorted by decreasing {@link MenuStats#getTotalNanos()}
+     */
+    public static List<MenuStats> getStats() {
+        List<MenuStats> stats = new ArrayList<>(STATS.values());
+        stats.sort(Comparator.comparingLong(MenuStats::getTotalNanos).reversed());
+        return stats;
+    }
+    
+    /**
+     * Clears the metrics of every menu class.
+     */
+    public static void reset() {
+        for (MenuStats stats : STATS.values()) {
+            stats.reset();
+        }
+    }
+    
+    /**
+     * Registers the {@code /menulib stats} and {@code /menulib slow} commands for the plugin which initialized MenuLib.
+     * This method must be called while the plugin is enabling, after {@link MenuLib#init(org.bukkit.plugin.java.JavaPlugin)}.
+     */
+    public static void registerCommand() {
+        MenuLib.getPlugin().getLifecycleManager().registerEventHandler(LifecycleEvents.COMMANDS, event ->
+                event.registrar().register("menulib", "Displays the statistics of the menus", new MenuStatsCommand()));
+    }
+    
+    private static MenuStats getOrCreateStats(Class<? extends Menu> menuType) {
+        MenuStats stats = STATS.get(menuType);
+        if (stats == null) {
+            stats = STATS.computeIfAbsent(menuType, MenuStats::new);
+        }
+        return stats;
+    }
+}
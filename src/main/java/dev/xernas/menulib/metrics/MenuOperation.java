@@ -0,0 +1,50 @@
+package dev.xernas.menulib.metrics;
+
+/**
+ * The operations of a menu measured by {@link MenuMetrics}.
+ */
+public enum MenuOperation {
+    /**
+     * The whole {@link dev.xernas.menulib.Menu#open()} call.
+     */
+    OPEN("open"),
+    /**
+     * The permission check of {@link dev.xernas.menulib.Menu#open()}.
+     */
+    OPEN_PERMISSION("open.permission"),
+    /**
+     * The retrieval, or the creation on first open, of the inventory of the menu.
+     */
+    OPEN_INVENTORY("open.inventory"),
+    /**
+     * The build of the content of the menu and its write to the inventory.
+     */
+    OPEN_CONTENT("open.content"),
+    /**
+     * The opening of the inventory for the player.
+     */
+    OPEN_VIEW("open.view"),
+    /**
+     * The dispatch of a click by {@link dev.xernas.menulib.MenuLib#onInventoryClick(org.bukkit.event.inventory.InventoryClickEvent)}.
+     */
+    CLICK("click"),
+    /**
+     * The handling of the closing of the menu by {@link dev.xernas.menulib.MenuLib#onClose(org.bukkit.event.inventory.InventoryCloseEvent)}.
+     */
+    CLOSE("close");
+    
+    private final String key;
+    
+    MenuOperation(String key) {
+        this.key = key;
+    }
+    
+    /**
+     * Retrieves the name of the operation, as displayed by the statistics command.
+     *
+     * @return the name of the operation
+     */
+    public String getKey() {
+        return key;
+    }
+}
@@ -0,0 +1,73 @@
+package dev.xernas.menulib.metrics;
+
+import dev.xernas.menulib.Menu;
+
+import java.util.EnumMap;
+import java.util.Map;
+
+/**
+ * The counters and latency histograms of the {@link MenuOperation}s of one menu class.
+ */
+public final class MenuStats {
+    
+    private final Class<? extends Menu> menuType;
+    private final Map<MenuOperation, LatencyHistogram> histograms = new EnumMap<>(MenuOperation.class);
+    
+    MenuStats(Class<? extends Menu> menuType) {
+        this.menuType = menuType;
+        for (MenuOperation operation : MenuOperation.values()) {
+            histograms.put(operation, new LatencyHistogram());
+        }
+    }
+    
+    /**
+     * Retrieves the menu class these statistics belong to.
+     *
+     * @return the menu class
+     */
+    public Class<? extends Menu> getMenuType() {
+        return menuType;
+    }
+    
+    /**
+     * Retrieves the latency histogram of an operation.
+     *
+     * @param operation the measured operation
+     * @return the {@link LatencyHistogram} of the operation
+     */
+    public LatencyHistogram getHistogram(MenuOperation operation) {
+        return histograms.get(operation);
+    }
+    
+    /**
+     * Retrieves the number of times an operation was recorded.
+     *
+     * @param operation the measured operation
+     * @return the count of the operation
+     */
+    public long getCount(MenuOperation operation) {
+        return histograms.get(operation).getCount();
+    }
+    
+    /**
+     * Retrieves the time spent in the top-level operations, {@link MenuOperation#OPEN},
+     * {@link MenuOperation#CLICK} and {@link MenuOperation#CLOSE}, which is the tick time used by the menu class.
+     *
+     * @return the total time, in nanoseconds
+     */
+    public long getTotalNanos() {
+        return histograms.get(MenuOperation.OPEN).getTotalNanos()
+                + histograms.get(MenuOperation.CLICK).getTotalNanos()
+                + histograms.get(MenuOperation.CLOSE).getTotalNanos();
+    }
+    
+    void record(MenuOperation operation, long nanos) {
+        histograms.get(operation).record(nanos);
+    }
+    
+    void reset() {
+        for (LatencyHistogram histogram : histograms.values()) {
+            histogram.reset();
+        }
+    }
+}
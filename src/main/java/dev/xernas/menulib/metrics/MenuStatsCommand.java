@@ -0,0 +1,111 @@
+package dev.xernas.menulib.metrics;
+
+import io.papermc.paper.command.brigadier.BasicCommand;
+import io.papermc.paper.command.brigadier.CommandSourceStack;
+import net.kyori.adventure.text.Component;
+import org.bukkit.command.CommandSender;
+import org.jetbrains.annotations.NotNull;
+import org.jetbrains.annotations.Nullable;
+
+import java.util.Collection;
+import java.util.List;
+import java.util.Locale;
+
+/**
+ * The {@code /menulib stats [enable|disable|reset]} command, displaying the costliest menu classes,
+ * and the {@code /menulib slow} command, displaying the top offenders of the {@link SlowHandlerWatchdog}.
+ */
+final class MenuStatsCommand implements BasicCommand {
+    
+    private static final int MAX_DISPLAYED = 10;
+    private static final MenuOperation[] DISPLAYED_OPERATIONS = {MenuOperation.OPEN, MenuOperation.CLICK, MenuOperation.CLOSE};
+    
+    @Override
+    public void execute(@NotNull CommandSourceStack source, String @NotNull [] args) {
+        CommandSender sender = source.getSender();
+        if (args.length > 0 && args[0].equalsIgnoreCase("slow")) {
+            sendSlowOperations(sender);
+            return;
+        }
+        if (args.length == 0 || ! args[0].equalsIgnoreCase("stats")) {
+            sender.sendMessage(Component.text("§cUsage : /menulib <stats [enable|disable|reset]|slow>"));
+            return;
+        }
+        
+        if (args.length > 1) {
+            switch (args[1].toLowerCase(Locale.ROOT)) {
+                case "enable" -> {
+                    MenuMetrics.enable();
+                    sender.sendMessage(Component.text("§aLes statistiques des menus sont activées."));
+                }
+                case "disable" -> {
+                    MenuMetrics.disable();
+                    sender.sendMessage(Component.text("§aLes statistiques des menus sont désactivées."));
+                }
+                case "reset" -> {
+                    MenuMetrics.reset();
+                    sender.sendMessage(Component.text("§aLes statistiques des menus ont été réinitialisées."));
+                }
+                default -> sender.sendMessage(Component.text("§cUsage : /menulib stats [enable|disable|reset]"));
+            }
+            return;
+        }
+        
+        sender.sendMessage(Component.text("§6Statistiques des menus §7(" + (MenuMetrics.isEnabled() ? "§aactivées" : "§cdésactivées") + "§7)"));
+        List<MenuStats> stats = MenuMetrics.getStats();
+        if (stats.isEmpty() || stats.getFirst().getTotalNanos() == 0) {
+            sender.sendMessage(Component.text("§7Aucune statistique enregistrée."));
+            return;
+        }
+        
+        for (int i = 0; i < Math.min(MAX_DISPLAYED, stats.size()); i++) {
+            MenuStats menuStats = stats.get(i);
+            if (menuStats.getTotalNanos() == 0) break;
+            
+            sender.sendMessage(Component.text("§e" + menuStats.getMenuType().getSimpleName() + " §7- total §f" + formatMillis(menuStats.getTotalNanos()) + " ms"));
+            for (MenuOperation operation : DISPLAYED_OPERATIONS) {
+                LatencyHistogram histogram = menuStats.getHistogram(operation);
+                if (histogram.getCount() == 0) continue;
+                
+                sender.sendMessage(Component.text("  §7" + operation.getKey() + " : §f" + histogram.getCount()
+                        + " §7(moy. §f" + formatMillis(histogram.getMeanNanos())
+                        + " §7ms, p99 §f" + formatMillis(histogram.getPercentileNanos(99))
+                        + " §7ms, max §f" + formatMillis(histogram.getMaxNanos()) + " §7ms)"));
+            }
+        }
+    }
+    
+    @Override
+    public @NotNull Collection<String> suggest(@NotNull CommandSourceStack source, String @NotNull [] args) {
+        if (args.length <= 1) return List.of("stats", "slow");
+        if (args.length == 2 && args[0].equalsIgnoreCase("stats")) return List.of("enable", "disable", "reset");
+        return List.of();
+    }
+    
+    @Override
+    public @Nullable String permission() {
+        return "menulib.stats";
+    }
+    
+    private static void sendSlowOperations(CommandSender sender) {
+        sender.sendMessage(Component.text("§6Opérations lentes des menus §7(budget §f" + SlowHandlerWatchdog.getBudgetMillis() + " ms§7, "
+                + (SlowHandlerWatchdog.isEnabled() ? "§aactivé" : "§cdésactivé") + "§7)"));
+        List<SlowOperation> offenders = SlowHandlerWatchdog.getTopOffenders(MAX_DISPLAYED);
+        if (offenders.isEmpty()) {
+            sender.sendMessage(Component.text("§7Aucune opération lente."));
+            return;
+        }
+        
+        for (SlowOperation offender : offenders) {
+            sender.sendMessage(Component.text("§e" + offender.menuType().getSimpleName() + " §7" + offender.operation().getKey()
+                    + (offender.slot() >= 0 ? " slot §f" + offender.slot() : "")
+                    + (offender.itemId() != null ? " §7id §f" + offender.itemId() : "")
+                    + " §7: §f" + offender.count() + " §7fois, total §f" + formatMillis(offender.totalNanos())
+                    + " §7ms, max §f" + formatMillis(offender.maxNanos()) + " §7ms"));
+        }
+    }
+    
+    private static String formatMillis(double nanos) {
+        return String.format(Locale.ROOT, "%.2f", nanos / 1_000_000.0);
+    }
+}
@@ -0,0 +1,308 @@
+package dev.xernas.menulib.metrics;
+
+import dev.xernas.menulib.Menu;
+import dev.xernas.menulib.MenuLib;
+import dev.xernas.menulib.utils.ItemUtils;
+import org.bukkit.inventory.ItemStack;
+import org.jetbrains.annotations.Nullable;
+
+import java.util.ArrayList;
+import java.util.Comparator;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.Executors;
+import java.util.concurrent.ScheduledExecutorService;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.concurrent.atomic.LongAdder;
+
+/**
+ * Times the click handlers and the {@link Menu#getContent()} calls of every menu, and reports the ones
+ * exceeding a budget, 5 milliseconds by default.
+ * <p>
+ * While an operation runs, a sampler thread captures the stack trace of the thread running it as soon as
+ * it exceeds the budget, so the report shows where the time is spent, for instance a blocking I/O call.
+ * Each slow operation is logged with its menu class, slot, item id and sampled stack trace,
+ * at most once per {@link #getLogIntervalMillis()} for a given menu class, operation, slot and item id.
+ * <p>
+ * Slow operations are also aggregated into a rolling list of offenders, see {@link #getTopOffenders(int)},
+ * which only keeps the offenders seen during the last 10 minutes.
+ * <p>
+ * The watchdog is disabled by default. While disabled, timing an operation costs a single volatile read.
+ */
+public final class SlowHandlerWatchdog {
+    
+    private static final int MAX_OFFENDERS = 256;
+    private static final long OFFENDER_WINDOW_NANOS = TimeUnit.MINUTES.toNanos(10);
+    
+    private static final Map<Thread, Watch> ACTIVE = new ConcurrentHashMap<>();
+    private static final Map<OffenderKey, Offender> OFFENDERS = new ConcurrentHashMap<>();
+    private static final AtomicLong lastUntrackedLog = new AtomicLong(System.nanoTime() - TimeUnit.DAYS.toNanos(1));
+    
+    private static volatile boolean enabled;
+    private static volatile long budgetNanos = TimeUnit.MILLISECONDS.toNanos(5);
+    private static volatile long logIntervalNanos = TimeUnit.SECONDS.toNanos(10);
+    
+    private static ScheduledExecutorService sampler;
+    
+    private SlowHandlerWatchdog() {
+    }
+    
+    /**
+     * Starts timing operations and starts the sampler thread.
+     */
+    public static synchronized void enable() {
+        enabled = true;
+        restartSampler();
+    }
+    
+    /**
+     * Stops timing operations and stops the sampler thread. The offenders already recorded are kept.
+     */
+    public static synchronized void disable() {
+        enabled = false;
+        if (sampler != null) {
+            sampler.shutdownNow();
+            sampler = null;
+        }
+        ACTIVE.clear();
+    }
+    
+    /**
+     * Checks if operations are timed.
+     *
+     * @return {@code true} if the watchdog is enabled, {@code false} otherwise
+     */
+    public static boolean isEnabled() {
+        return enabled;
+    }
+    
+    /**
+     * Sets the time an operation may take before being reported.
+     *
+     * @param budgetMillis the budget, in milliseconds, at least 1
+     */
+    public static synchronized void setBudgetMillis(long budgetMillis) {
+        if (budgetMillis < 1) {
+            throw new IllegalArgumentException("The budget must be at least 1 millisecond");
+        }
+        budgetNanos = TimeUnit.MILLISECONDS.toNanos(budgetMillis);
+        if (enabled) {
+            restartSampler();
+        }
+    }
+    
+    /**
+     * Retrieves the time an operation may take before being reported.
+     *
+     * @return the budget, in milliseconds
+     */
+    public static long getBudgetMillis() {
+        return TimeUnit.NANOSECONDS.toMillis(budgetNanos);
+    }
+    
+    /**
+     * Sets the minimum interval between two logs of the same slow operation.
+     *
+     * @param logIntervalMillis the interval, in milliseconds, or 0 to log every slow invocation
+     */
+    public static void setLogIntervalMillis(long logIntervalMillis) {
+        if (logIntervalMillis < 0) {
+            throw new IllegalArgumentException("The log interval cannot be negative");
+        }
+        logIntervalNanos = TimeUnit.MILLISECONDS.toNanos(logIntervalMillis);
+    }
+    
+    /**
+     * Retrieves the minimum interval between two logs of the same slow operation.
+     *
+     * @return the interval, in milliseconds
+     */
+    public static long getLogIntervalMillis() {
+        return TimeUnit.NANOSECONDS.toMillis(logIntervalNanos);
+    }
+    
+    /**
+     * Retrieves the slow operations seen during the last 10 minutes, the costliest first.
+     *
+     * @param limit the maximum number of offenders to return
+     * @return a new list of {@link SlowOperation}s sorted by decreasing total time
+     */
+    public static List<SlowOperation> getTopOffenders(int limit) {
+        long now = System.nanoTime();
+        List<SlowOperation> offenders = new ArrayList<>();
+        for (Map.Entry<OffenderKey, Offender> entry : OFFENDERS.entrySet()) {
+            Offender offender = entry.getValue();
+            if (now - offender.lastSeen > OFFENDER_WINDOW_NANOS) continue;
+            
+            OffenderKey key = entry.getKey();
+            offenders.add(new SlowOperation(key.menuType(), key.operation(), key.slot(), key.itemId(),
+                    offender.count.sum(), offender.totalNanos.sum(), offender.maxNanos.get(), offender.lastStackTrace));
+        }
+        offenders.sort(Comparator.comparingLong(SlowOperation::totalNanos).reversed());
+        return offenders.size() > limit ? new ArrayList<>(offenders.subList(0, Math.max(0, limit))) : offenders;
+    }
+    
+    /**
+     * Clears the list of offenders.
+     */
+    public static void resetOffenders() {
+        OFFENDERS.clear();
+    }
+    
+    /**
+     * Starts timing an operation on the current thread.
+     *
+     * @param menu      the menu running the operation
+     * @param operation the timed operation
+     * @param slot      the raw slot of the click, or -1 if the operation is not a click
+     * @param item      the clicked item, or {@code null} if the operation is not a click
+     * @return the {@link Watch} to pass to {@link #end(Watch)}, or {@code null} if the watchdog is disabled
+     */
+    @Nullable
+    public static Watch begin(Menu menu, WatchedOperation operation, int slot, @Nullable ItemStack item) {
+        if (! enabled) return null;
+        
+        Thread thread = Thread.currentThread();
+        Watch watch = new Watch(menu, operation, slot, item, ACTIVE.get(thread));
+        ACTIVE.put(thread, watch);
+        return watch;
+    }
+    
+    /**
+     * Stops timing an operation started with {@link #begin(Menu, WatchedOperation, int, ItemStack)},
+     * and reports it if it exceeded the budget.
+     *
+     * @param watch the {@link Watch} of the operation, may be {@code null}
+     */
+    public static void end(@Nullable Watch watch) {
+        if (watch == null) return;
+        
+        long elapsed = System.nanoTime() - watch.start;
+        Thread thread = Thread.currentThread();
+        if (watch.previous != null) {
+            ACTIVE.put(thread, watch.previous);
+        } else {
+            ACTIVE.remove(thread, watch);
+        }
+        
+        if (elapsed >= budgetNanos) {
+            report(watch, elapsed);
+        }
+    }
+    
+    private static void restartSampler() {
+        if (sampler != null) {
+            sampler.shutdownNow();
+        }
+        long periodNanos = Math.max(TimeUnit.MILLISECONDS.toNanos(1), budgetNanos / 2);
+        sampler = Executors.newSingleThreadScheduledExecutor(runnable -> {
+            Thread thread = new Thread(runnable, "MenuLib Watchdog");
+            thread.setDaemon(true);
+            return thread;
+        });
+        sampler.scheduleAtFixedRate(SlowHandlerWatchdog::sample, periodNanos, periodNanos, TimeUnit.NANOSECONDS);
+    }
+    
+    private static void sample() {
+        long now = System.nanoTime();
+        for (Map.Entry<Thread, Watch> entry : ACTIVE.entrySet()) {
+            StackTraceElement[] stackTrace = null;
+            for (Watch watch = entry.getValue(); watch != null; watch = watch.previous) {
+                if (watch.stackTrace != null || now - watch.start < budgetNanos) continue;
+                
+                if (stackTrace == null) {
+                    stackTrace = entry.getKey().getStackTrace();
+                }
+                watch.stackTrace = stackTrace;
+            }
+        }
+    }
+    
+    private static void report(Watch watch, long elapsed) {
+        long now = System.nanoTime();
+        String itemId = watch.item == null ? null : ItemUtils.getItemId(watch.item);
+        OffenderKey key = new OffenderKey(watch.menu.getClass(), watch.operation, watch.slot, itemId);
+        Offender offender = getOrCreateOffender(key, now);
+        
+        boolean log;
+        if (offender != null) {
+            offender.count.increment();
+            offender.totalNanos.add(elapsed);
+            offender.maxNanos.accumulateAndGet(elapsed, Math::max);
+            offender.lastSeen = now;
+            if (watch.stackTrace != null) {
+                offender.lastStackTrace = watch.stackTrace;
+            }
+            log = tryLog(offender.lastLogged, now);
+        } else {
+            log = tryLog(lastUntrackedLog, now);
+        }
+        if (! log) return;
+        
+        Exception sample = null;
+        if (watch.stackTrace != null) {
+            sample = new Exception("Stack trace sampled while the operation exceeded the budget");
+            sample.setStackTrace(watch.stackTrace);
+        }
+        MenuLib.getPlugin().getSLF4JLogger().warn("Slow {} in menu {} (slot {}, item id {}): {} ms, budget {} ms",
+                watch.operation.getKey(), watch.menu.getClass().getName(), watch.slot, itemId,
+                TimeUnit.NANOSECONDS.toMillis(elapsed), getBudgetMillis(), sample);
+    }
+    
+    private static boolean tryLog(AtomicLong lastLogged, long now) {
+        long last = lastLogged.get();
+        return now - last >= logIntervalNanos && lastLogged.compareAndSet(last, now);
+    }
+    
+    @Nullable
+    private static Offender getOrCreateOffender(OffenderKey key, long now) {
+        Offender offender = OFFENDERS.get(key);
+        if (offender != null) return offender;
+        
+        if (OFFENDERS.size() >= MAX_OFFENDERS) {
+            OFFENDERS.values().removeIf(stale -> now - stale.lastSeen > OFFENDER_WINDOW_NANOS);
+            if (OFFENDERS.size() >= MAX_OFFENDERS) return null;
+        }
+        return OFFENDERS.computeIfAbsent(key, k -> new Offender(now));
+    }
+    
+    /**
+     * An operation being timed by the watchdog.
+     */
+    public static final class Watch {
+        private final Menu menu;
+        private final WatchedOperation operation;
+        private final int slot;
+        private final ItemStack item;
+        private final Watch previous;
+        private final long start = System.nanoTime();
+        private volatile StackTraceElement[] stackTrace;
+        
+        private Watch(Menu menu, WatchedOperation operation, int slot, @Nullable ItemStack item, @Nullable Watch previous) {
+            this.menu = menu;
+            this.operation = operation;
+            this.slot = slot;
+            this.item = item;
+            this.previous = previous;
+        }
+    }
+    
+    private static final class Offender {
+        private final LongAdder count = new LongAdder();
+        private final LongAdder totalNanos = new LongAdder();
+        private final AtomicLong maxNanos = new AtomicLong();
+        private final AtomicLong lastLogged;
+        private volatile long lastSeen;
+        private volatile StackTraceElement[] lastStackTrace;
+        
+        private Offender(long now) {
+            this.lastSeen = now;
+            this.lastLogged = new AtomicLong(now - TimeUnit.DAYS.toNanos(1));
+        }
+    }
+    
+    private record OffenderKey(Class<? extends Menu> menuType, WatchedOperation operation, int slot, @Nullable String itemId) {
+    }
+}
@@ -0,0 +1,20 @@
+package dev.xernas.menulib.metrics;
+
+import dev.xernas.menulib.Menu;
+import org.jetbrains.annotations.Nullable;
+
+/**
+ * An operation which exceeded the budget of the {@link SlowHandlerWatchdog}, aggregated over its slow invocations.
+ *
+ * @param menuType        the menu class
+ * @param operation       the slow operation
+ * @param slot            the raw slot of the click, or -1 for {@link WatchedOperation#CONTENT}
+ * @param itemId          the id of the clicked item, or {@code null} if it has none
+ * @param count           the number of slow invocations
+ * @param totalNanos      the total time of the slow invocations, in nanoseconds
+ * @param maxNanos        the time of the slowest invocation, in nanoseconds
+ * @param lastStackTrace  the stack trace sampled during the last slow invocation, or {@code null} if none was sampled
+ */
+public record SlowOperation(Class<? extends Menu> menuType, WatchedOperation operation, int slot, @Nullable String itemId,
+                            long count, long totalNanos, long maxNanos, StackTraceElement @Nullable [] lastStackTrace) {
+}
@@ -0,0 +1,34 @@
+package dev.xernas.menulib.metrics;
+
+/**
+ * The operations timed by the {@link SlowHandlerWatchdog}.
+ */
+public enum WatchedOperation {
+    /**
+     * A call to {@link dev.xernas.menulib.Menu#onInventoryClick(org.bukkit.event.inventory.InventoryClickEvent)}.
+     */
+    MENU_CLICK("menu click"),
+    /**
+     * A call to the click event handler of an item.
+     */
+    ITEM_CLICK("item click"),
+    /**
+     * A call to {@link dev.xernas.menulib.Menu#getContent()}.
+     */
+    CONTENT("content");
+    
+    private final String key;
+    
+    WatchedOperation(String key) {
+        this.key = key;
+    }
+    
+    /**
+     * Retrieves the name of the operation, as displayed in logs.
+     *
+     * @return the name of the operation
+     */
+    public String getKey() {
+        return key;
+    }
+}
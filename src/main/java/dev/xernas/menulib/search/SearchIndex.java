@@ -0,0 +1,385 @@
+package dev.xernas.menulib.search;
+
+import it.unimi.dsi.fastutil.ints.IntArrayList;
+import it.unimi.dsi.fastutil.longs.Long2ObjectOpenHashMap;
+import net.kyori.adventure.text.serializer.plain.PlainTextComponentSerializer;
+import org.bukkit.inventory.ItemStack;
+
+import java.text.Normalizer;
+import java.util.Arrays;
+import java.util.Collection;
+import java.util.IdentityHashMap;
+import java.util.Locale;
+import java.util.Map;
+import java.util.function.Function;
+
+/**
+ * A full-text index of entries, searched by the words of a query.
+ * <p>
+ * The search key of each entry is extracted once when the entry is added, then normalized: color codes,
+ * accents and case are ignored, so {@code "epee"} finds {@code "§bÉpée en diamant"}. Each key is indexed
+ * by its trigrams, the sequences of 3 characters of its words, in sorted posting lists of entry ids.
+ * A query matches the entries whose key contains every word of the query: words of 3 characters or more
+ * are looked up in the index, whose posting lists are intersected before the candidates are checked,
+ * while shorter words are only checked against the candidates.
+ * <p>
+ * Adding, updating and removing an entry only touches the posting lists of its own trigrams.
+ * Entries are identified by identity and kept in insertion order, which is the order of the results.
+ * The index is thread-safe, and a {@link SearchResult} follows the changes of its index.
+ *
+ * @param <T> the type of the entries
+ */
+public final class SearchIndex<T> {
+    
+    private static final int GRAM_LENGTH = 3;
+    private static final int MIN_COMPACTION = 64;
+    
+    private final Function<? super T, String> keyExtractor;
+    private final Map<T, Integer> ids = new IdentityHashMap<>();
+    private final Long2ObjectOpenHashMap<IntArrayList> postings = new Long2ObjectOpenHashMap<>();
+    
+    private Object[] entries = new Object[16];
+    private String[] keys = new String[16];
+    private int nextId;
+    private int version;
+    private int[] liveIds;
+    
+    /**
+     * Constructs an empty SearchIndex.
+     *
+     * @param keyExtractor the function extracting the search key of an entry, called once per added or updated entry
+     */
+    public SearchIndex(Function<? super T, String> keyExtractor) {
+        this.keyExtractor = keyExtractor;
+    }
+    
+    /**
+     * Constructs an empty SearchIndex of items, searched by their name as displayed to the players.
+     *
+     * @return a new {@link SearchIndex} of {@link ItemStack}s
+     */
+    public static SearchIndex<ItemStack> ofItems() {
+        return new SearchIndex<>(item -> PlainTextComponentSerializer.plainText().serialize(item.effectiveName()));
+    }
+    
+    /**
+     * Adds an entry to the index.
+     *
+     * @param entry the entry to add
+     * @return {@code true} if the entry was added, {@code false} if it is already in the index
+     */
+    public synchronized boolean add(T entry) {
+        if (ids.containsKey(entry)) return false;
+        
+        int id = nextId++;
+        if (id == entries.length) {
+            int capacity = entries.length + (entries.length >> 1);
+            entries = Arrays.copyOf(entries, capacity);
+            keys = Arrays.copyOf(keys, capacity);
+        }
+        String key = normalize(keyExtractor.apply(entry));
+        entries[id] = entry;
+        keys[id] = key;
+        ids.put(entry, id);
+        index(id, key);
+        changed();
+        return true;
+    }
+    
+    /**
+     * Adds several entries to the index, see {@link #add(Object)}.
+     *
+     * @param entries the entries to add
+     */
+    public synchronized void addAll(Collection<? extends T> entries) {
+        for (T entry : entries) {
+            add(entry);
+        }
+    }
+    
+    /**
+     * Extracts the search key of an entry again, after the entry changed.
+     *
+     * @param entry the changed entry
+     * @return {@code true} if the entry is in the index, {@code false} otherwise
+     */
+    public synchronized boolean update(T entry) {
+        Integer id = ids.get(entry);
+        if (id == null) return false;
+        
+        String key = normalize(keyExtractor.apply(entry));
+        if (! key.equals(keys[id])) {
+            unindex(id, keys[id]);
+            keys[id] = key;
+            index(id, key);
+            changed();
+        }
+        return true;
+    }
+    
+    /**
+     * Removes an entry from the index.
+     *
+     * @param entry the entry to remove
+     * @return {@code true} if the entry was removed, {@code false} if it was not in the index
+     */
+    public synchronized boolean remove(T entry) {
+        Integer id = ids.remove(entry);
+        if (id == null) return false;
+        
+        unindex(id, keys[id]);
+        entries[id] = null;
+        keys[id] = null;
+        changed();
+        
+        int removed = nextId - ids.size();
+        if (removed >= MIN_COMPACTION && removed > ids.size()) {
+            compact();
+        }
+        return true;
+    }
+    
+    /**
+     * Removes every entry from the index.
+     */
+    public synchronized void clear() {
+        ids.clear();
+        postings.clear();
+        entries = new Object[16];
+        keys = new String[16];
+        nextId = 0;
+        changed();
+    }
+    
+    /**
+     * Retrieves the number of entries in the index.
+     *
+     * @return the number of entries
+     */
+    public synchronized int size() {
+        return ids.size();
+    }
+    
+    /**
+     * Searches the index. The query is run when the result is first read,
+     * and again whenever the index changed since.
+     *
+     * @param query the words to search, an empty query matches every entry
+     * @return the {@link SearchResult} of the query
+     */
+    public SearchResult<T> search(String query) {
+        return new SearchResult<>(this, query);
+    }
+    
+    /**
+     * Normalizes a text the way search keys and queries are normalized: color codes and accents
+     * are removed, letters are lower-cased and whitespace is collapsed into single spaces.
+     *
+     * @param text the text to normalize, may be {@code null}
+     * @return the normalized text, empty if {@code text} is {@code null}
+     */
+    public static String normalize(String text) {
+        if (text == null || text.isEmpty()) return "";
+        
+        String decomposed = Normalizer.normalize(text, Normalizer.Form.NFD);
+        StringBuilder builder = new StringBuilder(decomposed.length());
+        boolean space = true;
+        for (int i = 0; i < decomposed.length(); i++) {
+            char c = decomposed.charAt(i);
+            if (c == '§') {
+                i++;
+            } else if (Character.isWhitespace(c)) {
+                if (! space) builder.append(' ');
+                space = true;
+            } else if (Character.getType(c) != Character.NON_SPACING_MARK) {
+                builder.append(c);
+                space = false;
+            }
+        }
+        int length = builder.length();
+        if (length > 0 && builder.charAt(length - 1) == ' ') {
+            builder.setLength(length - 1);
+        }
+        return builder.toString().toLowerCase(Locale.ROOT);
+    }
+    
+    /**
+     * Retrieves the version of the index, incremented by every change.
+     *
+     * @return the current version
+     */
+    synchronized int getVersion() {
+        return version;
+    }
+    
+    /**
+     * Retrieves the entry of an id.
+     *
+     * @param id the id of the entry
+     * @return the entry, or {@code null} if it was removed
+     */
+    @SuppressWarnings("unchecked")
+    synchronized T get(int id) {
+        return (T) entries[id];
+    }
+    
+    /**
+     * Runs a query against the current state of the index.
+     *
+     * @param words the normalized words of the query
+     * @return the ids of the matching entries, in insertion order
+     */
+    synchronized int[] query(String[] words) {
+        int[] candidates = null;
+        for (String word : words) {
+            if (word.length() < GRAM_LENGTH) continue;
+            
+            candidates = intersect(candidates, word);
+            if (candidates.length == 0) return candidates;
+        }
+        if (candidates == null) {
+            candidates = getLiveIds();
+        }
+        
+        int[] matches = new int[candidates.length];
+        int count = 0;
+        for (int id : candidates) {
+            if (containsAll(keys[id], words)) {
+                matches[count++] = id;
+            }
+        }
+        return count == matches.length ? matches : Arrays.copyOf(matches, count);
+    }
+    
+    private int[] intersect(int[] candidates, String word) {
+        IntArrayList[] lists = new IntArrayList[word.length() - GRAM_LENGTH + 1];
+        for (int i = 0; i < lists.length; i++) {
+            IntArrayList list = postings.get(gram(word, i));
+            if (list == null) return new int[0];
+            lists[i] = list;
+        }
+        Arrays.sort(lists, (a, b) -> Integer.compare(a.size(), b.size()));
+        
+        int[] result = candidates == null ? lists[0].toIntArray() : intersect(candidates, lists[0]);
+        for (int i = 1; i < lists.length && result.length > 0; i++) {
+            result = intersect(result, lists[i]);
+        }
+        return result;
+    }
+    
+    private static int[] intersect(int[] ids, IntArrayList list) {
+        int[] elements = list.elements();
+        int size = list.size();
+        int[] result = new int[Math.min(ids.length, size)];
+        int count = 0;
+        int i = 0;
+        int j = 0;
+        while (i < ids.length && j < size) {
+            if (ids[i] < elements[j]) {
+                i++;
+            } else if (ids[i] > elements[j]) {
+                j++;
+            } else {
+                result[count++] = ids[i];
+                i++;
+                j++;
+            }
+        }
+        return count == result.length ? result : Arrays.copyOf(result, count);
+    }
+    
+    private static boolean containsAll(String key, String[] words) {
+        for (String word : words) {
+            if (! key.contains(word)) return false;
+        }
+        return true;
+    }
+    
+    private int[] getLiveIds() {
+        int[] live = liveIds;
+        if (live == null) {
+            live = new int[ids.size()];
+            int count = 0;
+            for (int id = 0; id < nextId; id++) {
+                if (entries[id] != null) {
+                    live[count++] = id;
+                }
+            }
+            liveIds = live;
+        }
+        return live;
+    }
+    
+    private void index(int id, String key) {
+        for (int i = 0; i + GRAM_LENGTH <= key.length(); i++) {
+            if (spansWords(key, i)) continue;
+            
+            IntArrayList list = postings.computeIfAbsent(gram(key, i), k -> new IntArrayList(4));
+            int size = list.size();
+            if (size == 0 || list.getInt(size - 1) < id) {
+                list.add(id);
+            } else {
+                int position = Arrays.binarySearch(list.elements(), 0, size, id);
+                if (position < 0) {
+                    list.add(- position - 1, id);
+                }
+            }
+        }
+    }
+    
+    private void unindex(int id, String key) {
+        for (int i = 0; i + GRAM_LENGTH <= key.length(); i++) {
+            if (spansWords(key, i)) continue;
+            
+            long gram = gram(key, i);
+            IntArrayList list = postings.get(gram);
+            if (list == null) continue;
+            
+            int position = Arrays.binarySearch(list.elements(), 0, list.size(), id);
+            if (position >= 0) {
+                list.removeInt(position);
+                if (list.isEmpty()) {
+                    postings.remove(gram);
+                }
+            }
+        }
+    }
+    
+    private void compact() {
+        Object[] oldEntries = entries;
+        String[] oldKeys = keys;
+        int oldNextId = nextId;
+        
+        int capacity = Math.max(16, ids.size() + (ids.size() >> 1));
+        entries = new Object[capacity];
+        keys = new String[capacity];
+        nextId = 0;
+        ids.clear();
+        postings.clear();
+        for (int id = 0; id < oldNextId; id++) {
+            if (oldEntries[id] == null) continue;
+            
+            @SuppressWarnings("unchecked")
+            T entry = (T) oldEntries[id];
+            int newId = nextId++;
+            entries[newId] = entry;
+            keys[newId] = oldKeys[id];
+            ids.put(entry, newId);
+            index(newId, oldKeys[id]);
+        }
+        changed();
+    }
+    
+    private void changed() {
+        version++;
+        liveIds = null;
+    }
+    
+    private static boolean spansWords(String text, int start) {
+        return text.charAt(start) == ' ' || text.charAt(start + 1) == ' ' || text.charAt(start + 2) == ' ';
+    }
+    
+    private static long gram(String text, int start) {
+        return (long) text.charAt(start) << 32 | (long) text.charAt(start + 1) << 16 | text.charAt(start + 2);
+    }
+}
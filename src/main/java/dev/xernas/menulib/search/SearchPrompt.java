@@ -0,0 +1,153 @@
+package dev.xernas.menulib.search;
+
+import dev.xernas.menulib.MenuLib;
+import dev.xernas.menulib.utils.MenuScheduler;
+import net.kyori.adventure.text.Component;
+import org.bukkit.Bukkit;
+import org.bukkit.Material;
+import org.bukkit.entity.Player;
+import org.bukkit.event.EventHandler;
+import org.bukkit.event.Listener;
+import org.bukkit.event.inventory.InventoryClickEvent;
+import org.bukkit.event.inventory.InventoryCloseEvent;
+import org.bukkit.event.inventory.PrepareAnvilEvent;
+import org.bukkit.event.player.PlayerQuitEvent;
+import org.bukkit.inventory.ItemStack;
+import org.bukkit.inventory.MenuType;
+import org.bukkit.inventory.view.AnvilView;
+
+import java.util.Map;
+import java.util.UUID;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.atomic.AtomicBoolean;
+import java.util.function.Consumer;
+
+/**
+ * Asks a player for a text, such as a search query, through the rename field of an anvil.
+ * <p>
+ * The anvil holds a paper named after the initial text. The player types the text and clicks the result
+ * slot to submit it, which closes the anvil, or closes the anvil to cancel. The callbacks run on the next tick, on the thread owning
+ * the player, so they can open a menu. The anvil never gives its items to the player nor costs experience.
+ */
+public final class SearchPrompt implements Listener {
+    
+    private static final Map<UUID, Prompt> PROMPTS = new ConcurrentHashMap<>();
+    private static final AtomicBoolean REGISTERED = new AtomicBoolean();
+    
+    private static final int RESULT_SLOT = 2;
+    
+    private SearchPrompt() {
+    }
+    
+    /**
+     * Opens a prompt for a player, replacing the current view of the player.
+     *
+     * @param player      the {@link Player} to ask
+     * @param title       the title of the anvil
+     * @param initialText the text initially in the rename field, may be empty
+     * @param onSubmit    called with the submitted text
+     * @param onCancel    called if the player closes the anvil without submitting, may be {@code null}
+     */
+    @SuppressWarnings("UnstableApiUsage")
+    public static void open(Player player, String title, String initialText, Consumer<String> onSubmit, Runnable onCancel) {
+        if (REGISTERED.compareAndSet(false, true)) {
+            Bukkit.getPluginManager().registerEvents(new SearchPrompt(), MenuLib.getPlugin());
+        }
+        
+        Prompt previous = PROMPTS.remove(player.getUniqueId());
+        if (previous != null) {
+            previous.view().getTopInventory().clear();
+        }
+        
+        AnvilView view = MenuType.ANVIL.create(player, Component.text(title));
+        ItemStack input = new ItemStack(Material.PAPER);
+        String text = initialText == null || initialText.isEmpty() ? " " : initialText;
+        input.editMeta(meta -> meta.displayName(Component.text(text)));
+        view.getTopInventory().setItem(0, input);
+        
+        player.openInventory(view);
+        PROMPTS.put(player.getUniqueId(), new Prompt(view, onSubmit, onCancel));
+    }
+    
+    /**
+     * Checks if a player is currently answering a prompt.
+     *
+     * @param player the {@link Player} to check
+     * @return {@code true} if the player has an open prompt, {@code false} otherwise
+     */
+    public static boolean isPrompting(Player player) {
+        return PROMPTS.containsKey(player.getUniqueId());
+    }
+    
+    /**
+     * Shows the typed text as a free result, so the result slot can be clicked.
+     *
+     * @param e the {@link PrepareAnvilEvent} of the anvil
+     */
+    @EventHandler
+    public void onPrepareAnvil(PrepareAnvilEvent e) {
+        Prompt prompt = PROMPTS.get(e.getView().getPlayer().getUniqueId());
+        if (prompt == null || prompt.view() != e.getView()) return;
+        
+        String text = e.getView().getRenameText();
+        ItemStack result = new ItemStack(Material.PAPER);
+        result.editMeta(meta -> meta.displayName(Component.text(text == null ? "" : text)));
+        e.setResult(result);
+        e.getView().setRepairCost(0);
+    }
+    
+    /**
+     * Cancels every click in a prompt, and submits the typed text when the result slot is clicked.
+     *
+     * @param e the {@link InventoryClickEvent} of the click
+     */
+    @EventHandler
+    public void onInventoryClick(InventoryClickEvent e) {
+        Prompt prompt = PROMPTS.get(e.getWhoClicked().getUniqueId());
+        if (prompt == null || prompt.view() != e.getView()) return;
+        
+        e.setCancelled(true);
+        if (e.getRawSlot() != RESULT_SLOT || ! PROMPTS.remove(e.getWhoClicked().getUniqueId(), prompt)) return;
+        
+        String text = prompt.view().getRenameText();
+        String submitted = text == null ? "" : text.trim();
+        prompt.view().getTopInventory().clear();
+        Player player = (Player) e.getWhoClicked();
+        MenuScheduler.run(player, () -> {
+            if (player.getOpenInventory() == prompt.view()) {
+                player.closeInventory();
+            }
+            prompt.onSubmit().accept(submitted);
+        });
+    }
+    
+    /**
+     * Empties a closed prompt, so its paper is not given to the player, and cancels it if it was not submitted.
+     *
+     * @param e the {@link InventoryCloseEvent} of the anvil
+     */
+    @EventHandler
+    public void onInventoryClose(InventoryCloseEvent e) {
+        Prompt prompt = PROMPTS.get(e.getPlayer().getUniqueId());
+        if (prompt == null || prompt.view() != e.getView()) return;
+        
+        e.getView().getTopInventory().clear();
+        if (PROMPTS.remove(e.getPlayer().getUniqueId(), prompt) && prompt.onCancel() != null) {
+            Player player = (Player) e.getPlayer();
+            MenuScheduler.run(player, prompt.onCancel());
+        }
+    }
+    
+    /**
+     * Forgets the prompt of a player leaving the server.
+     *
+     * @param e the {@link PlayerQuitEvent} of the leaving player
+     */
+    @EventHandler
+    public void onQuit(PlayerQuitEvent e) {
+        PROMPTS.remove(e.getPlayer().getUniqueId());
+    }
+    
+    private record Prompt(AnvilView view, Consumer<String> onSubmit, Runnable onCancel) {
+    }
+}
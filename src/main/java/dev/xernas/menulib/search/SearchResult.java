@@ -0,0 +1,118 @@
+package dev.xernas.menulib.search;
+
+import dev.xernas.menulib.PageSource;
+import org.bukkit.inventory.ItemStack;
+import org.jetbrains.annotations.NotNull;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.function.Function;
+
+/**
+ * The entries of a {@link SearchIndex} matching a query, as a list of entry ids.
+ * <p>
+ * The query runs when the result is first read and again after the index changed,
+ * and windows of the result only resolve the entries they contain, so paginating
+ * a result never copies the entries of the index.
+ *
+ * @param <T> the type of the entries
+ */
+public final class SearchResult<T> {
+    
+    private final SearchIndex<T> index;
+    private final String query;
+    private final String[] words;
+    
+    private int[] ids;
+    private int version;
+    
+    /**
+     * Constructs a new SearchResult, see {@link SearchIndex#search(String)}.
+     *
+     * @param index the searched {@link SearchIndex}
+     * @param query the raw query
+     */
+    SearchResult(SearchIndex<T> index, String query) {
+        this.index = index;
+        this.query = query == null ? "" : query;
+        String normalized = SearchIndex.normalize(query);
+        this.words = normalized.isEmpty() ? new String[0] : normalized.split(" ");
+    }
+    
+    /**
+     * Retrieves the query of the result, as typed.
+     *
+     * @return the raw query
+     */
+    public String getQuery() {
+        return query;
+    }
+    
+    /**
+     * Retrieves the number of matching entries.
+     *
+     * @return the number of matches
+     */
+    public int count() {
+        return getIds().length;
+    }
+    
+    /**
+     * Retrieves a window of the matching entries, in insertion order.
+     *
+     * @param offset the index of the first match to retrieve, starting from 0
+     * @param limit  the maximum number of matches to retrieve
+     * @return a new {@link List} of at most {@code limit} entries, empty if {@code offset} is past the last match
+     */
+    public List<T> fetch(int offset, int limit) {
+        synchronized (index) {
+            int[] matches = getIds();
+            if (offset < 0 || limit <= 0 || offset >= matches.length) {
+                return List.of();
+            }
+            
+            int end = Math.min(matches.length, offset + limit);
+            List<T> window = new ArrayList<>(end - offset);
+            for (int i = offset; i < end; i++) {
+                window.add(index.get(matches[i]));
+            }
+            return window;
+        }
+    }
+    
+    /**
+     * Creates a {@link PageSource} paginating the result.
+     *
+     * @param itemMapper the function creating the item displayed for an entry, called only for the displayed entries
+     * @return a {@link PageSource} backed by the result
+     */
+    public PageSource asPageSource(Function<? super T, ? extends ItemStack> itemMapper) {
+        return new PageSource() {
+            @Override
+            public int count() {
+                return SearchResult.this.count();
+            }
+            
+            @Override
+            public @NotNull List<ItemStack> fetch(int offset, int limit) {
+                List<T> entries = SearchResult.this.fetch(offset, limit);
+                List<ItemStack> items = new ArrayList<>(entries.size());
+                for (T entry : entries) {
+                    items.add(itemMapper.apply(entry));
+                }
+                return items;
+            }
+        };
+    }
+    
+    private int[] getIds() {
+        synchronized (index) {
+            int current = index.getVersion();
+            if (ids == null || version != current) {
+                ids = index.query(words);
+                version = current;
+            }
+            return ids;
+        }
+    }
+}
@@ -0,0 +1,45 @@
+package dev.xernas.menulib.skull;
+
+import com.destroystokyo.paper.profile.PlayerProfile;
+import org.bukkit.Bukkit;
+import org.bukkit.entity.Player;
+
+import java.util.UUID;
+import java.util.concurrent.CompletableFuture;
+
+/**
+ * Resolves the skin texture of a player for the {@link SkullService}.
+ * <p>
+ * The default resolver, {@link #paper()}, uses the profile of the player if they are online and
+ * otherwise completes the profile through the server. Another resolver can be set with
+ * {@link SkullService#setResolver(ProfileResolver)}, for instance a local stand-in in tests.
+ */
+@FunctionalInterface
+public interface ProfileResolver {
+    
+    /**
+     * Resolves the texture of a player. This method is called on the thread requesting the skull
+     * and must not block it.
+     *
+     * @param playerId the UUID of the player
+     * @return a {@link CompletableFuture} completed with the {@link SkullTexture} of the player,
+     * or with {@code null} if the player has no texture
+     */
+    CompletableFuture<SkullTexture> resolve(UUID playerId);
+    
+    /**
+     * Retrieves the resolver backed by the profiles of the server.
+     *
+     * @return the default {@link ProfileResolver}
+     */
+    static ProfileResolver paper() {
+        return playerId -> {
+            Player player = Bukkit.getPlayer(playerId);
+            PlayerProfile profile = player != null ? player.getPlayerProfile() : Bukkit.createProfile(playerId);
+            if (profile.hasTextures()) {
+                return CompletableFuture.completedFuture(SkullTexture.of(profile));
+            }
+            return profile.update().thenApply(updated -> SkullTexture.of((PlayerProfile) updated));
+        };
+    }
+}
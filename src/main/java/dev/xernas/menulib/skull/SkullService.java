@@ -0,0 +1,364 @@
+package dev.xernas.menulib.skull;
+
+import com.destroystokyo.paper.profile.PlayerProfile;
+import dev.xernas.menulib.Menu;
+import dev.xernas.menulib.MenuLib;
+import dev.xernas.menulib.utils.MenuScheduler;
+import org.bukkit.Bukkit;
+import org.bukkit.Material;
+import org.bukkit.configuration.ConfigurationSection;
+import org.bukkit.configuration.file.YamlConfiguration;
+import org.bukkit.inventory.Inventory;
+import org.bukkit.inventory.ItemStack;
+import org.bukkit.inventory.meta.SkullMeta;
+import org.jetbrains.annotations.Nullable;
+
+import java.io.File;
+import java.io.IOException;
+import java.util.ArrayList;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.UUID;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicBoolean;
+
+/**
+ * Builds player skulls with their skin texture, without blocking on profile lookups.
+ * <p>
+ * Resolved textures are kept in an in-memory LRU cache, and optionally in a file under the data folder
+ * of the plugin, see {@link #enableDiskCache()}, so that heads are textured right after a restart.
+ * When the texture of a player is not cached yet, a placeholder head is returned at once while the
+ * texture is resolved asynchronously by the {@link ProfileResolver}. Once resolved, the heads of that
+ * player still displayed untextured in the open inventory of a menu are patched in place,
+ * see {@link #getSkull(Menu, UUID)}.
+ * <p>
+ * Cached textures are served for {@link #REFRESH_AFTER_MILLIS} milliseconds before being resolved again
+ * in the background, and players without texture are not looked up again for 10 minutes.
+ * Failed lookups are retried after 30 seconds, then after twice as long on each new failure, up to 10 minutes.
+ */
+public final class SkullService {
+    
+    /**
+     * The age after which a cached texture is resolved again, one day.
+     */
+    public static final long REFRESH_AFTER_MILLIS = TimeUnit.DAYS.toMillis(1);
+    
+    private static final long MISSING_RETRY_MILLIS = TimeUnit.MINUTES.toMillis(10);
+    private static final long FAILURE_RETRY_MILLIS = TimeUnit.SECONDS.toMillis(30);
+    private static final String CACHE_FILE = "skulls.yml";
+    
+    private static final Map<UUID, CompletableFuture<SkullTexture>> PENDING = new ConcurrentHashMap<>();
+    private static final Map<UUID, Long> RETRY_AT = new ConcurrentHashMap<>();
+    private static final Map<UUID, Long> FAILURE_DELAYS = new ConcurrentHashMap<>();
+    private static final AtomicBoolean saveScheduled = new AtomicBoolean();
+    
+    private static int maxCachedTextures = 2048;
+    private static final Map<UUID, CachedTexture> CACHE = new LinkedHashMap<>(256, 0.75f, true) {
+        @Override
+        protected boolean removeEldestEntry(Map.Entry<UUID, CachedTexture> eldest) {
+            return size() > maxCachedTextures;
+        }
+    };
+    
+    private static volatile ProfileResolver resolver = ProfileResolver.paper();
+    private static volatile boolean diskCacheEnabled;
+    
+    private SkullService() {
+    }
+    
+    /**
+     * Retrieves the skull of a player. If the texture of the player is cached, the skull is textured,
+     * otherwise a placeholder head is returned and the texture is resolved in the background.
+     *
+     * @param playerId the UUID of the player
+     * @return a new player head {@link ItemStack}
+     */
+    public static ItemStack getSkull(UUID playerId) {
+        CachedTexture cached = getCached(playerId);
+        if (cached != null && ! cached.isStale()) {
+            return createSkull(playerId, cached.texture());
+        }
+        
+        CompletableFuture<SkullTexture> future = resolve(playerId);
+        return createSkull(playerId, getNow(future, cached));
+    }
+    
+    /**
+     * Retrieves the skull of a player displayed in a menu. If the texture of the player is not cached yet,
+     * the heads of the player displayed untextured in the menu are patched in place once the texture is resolved,
+     * on the thread owning the owner of the menu.
+     *
+     * @param menu     the {@link Menu} displaying the skull
+     * @param playerId the UUID of the player
+     * @return a new player head {@link ItemStack}
+     */
+    public static ItemStack getSkull(Menu menu, UUID playerId) {
+        CachedTexture cached = getCached(playerId);
+        if (cached != null && ! cached.isStale()) {
+            return createSkull(playerId, cached.texture());
+        }
+        
+        CompletableFuture<SkullTexture> future = resolve(playerId);
+        SkullTexture texture = getNow(future, cached);
+        if (texture == null && future != null) {
+            future.thenAccept(resolved -> {
+                if (resolved != null && menu.getOwner() != null) {
+                    MenuScheduler.run(menu.getOwner(), () -> patch(menu, resolved));
+                }
+            });
+        }
+        return createSkull(playerId, texture);
+    }
+    
+    /**
+     * Retrieves the texture of a player, from the cache or from the {@link ProfileResolver}.
+     *
+     * @param playerId the UUID of the player
+     * @return a {@link CompletableFuture} completed with the {@link SkullTexture} of the player,
+     * or with {@code null} if the player has no texture
+     */
+    public static CompletableFuture<SkullTexture> getTexture(UUID playerId) {
+        CachedTexture cached = getCached(playerId);
+        if (cached != null && ! cached.isStale()) {
+            return CompletableFuture.completedFuture(cached.texture());
+        }
+        CompletableFuture<SkullTexture> future = resolve(playerId);
+        if (future == null) {
+            return CompletableFuture.completedFuture(cached == null ? null : cached.texture());
+        }
+        return future;
+    }
+    
+    /**
+     * Sets the resolver of the textures, for instance a local stand-in in tests.
+     *
+     * @param profileResolver the {@link ProfileResolver} to use
+     */
+    public static void setResolver(ProfileResolver profileResolver) {
+        resolver = profileResolver;
+    }
+    
+    /**
+     * Sets the maximum number of textures kept in memory. The default is 2048.
+     *
+     * @param maxTextures the maximum number of textures, at least 1
+     */
+    public static void setMaxCachedTextures(int maxTextures) {
+        if (maxTextures < 1) {
+            throw new IllegalArgumentException("The texture cache must hold at least 1 texture");
+        }
+        synchronized (CACHE) {
+            maxCachedTextures = maxTextures;
+        }
+    }
+    
+    /**
+     * Enables the disk cache: the textures saved in the data folder of the plugin are loaded in the background,
+     * and resolved textures are saved there. This method must be called after {@link MenuLib#init(org.bukkit.plugin.java.JavaPlugin)}.
+     */
+    public static void enableDiskCache() {
+        diskCacheEnabled = true;
+        MenuScheduler.runAsync(SkullService::load);
+    }
+    
+    /**
+     * Checks if resolved textures are saved in the data folder of the plugin.
+     *
+     * @return {@code true} if the disk cache is enabled, {@code false} otherwise
+     */
+    public static boolean isDiskCacheEnabled() {
+        return diskCacheEnabled;
+    }
+    
+    /**
+     * Saves the cached textures to the data folder of the plugin, on the current thread.
+     * Does nothing if the disk cache is disabled.
+     */
+    public static void save() {
+        if (! diskCacheEnabled) return;
+        
+        List<Map.Entry<UUID, CachedTexture>> entries;
+        synchronized (CACHE) {
+            entries = new ArrayList<>(CACHE.entrySet());
+        }
+        
+        YamlConfiguration configuration = new YamlConfiguration();
+        for (Map.Entry<UUID, CachedTexture> entry : entries) {
+            SkullTexture texture = entry.getValue().texture();
+            ConfigurationSection section = configuration.createSection("textures." + entry.getKey());
+            section.set("name", texture.name());
+            section.set("value", texture.value());
+            section.set("signature", texture.signature());
+            section.set("resolved-at", entry.getValue().resolvedAt());
+        }
+        
+        try {
+            configuration.save(getCacheFile());
+        } catch (IOException e) {
+            MenuLib.getPlugin().getSLF4JLogger().error("An error occurred while saving the skull textures: {}", e.getMessage(), e);
+        }
+    }
+    
+    /**
+     * Clears the cached textures, in memory only.
+     */
+    public static void clear() {
+        synchronized (CACHE) {
+            CACHE.clear();
+        }
+        RETRY_AT.clear();
+        FAILURE_DELAYS.clear();
+    }
+    
+    @Nullable
+    private static CachedTexture getCached(UUID playerId) {
+        synchronized (CACHE) {
+            return CACHE.get(playerId);
+        }
+    }
+    
+    /**
+     * Starts resolving the texture of a player, unless it is already being resolved,
+     * the player recently had no texture or the last lookup recently failed.
+     *
+     * @param playerId the UUID of the player
+     * @return the pending resolution, or {@code null} if the player must not be looked up yet
+     */
+    @Nullable
+    private static CompletableFuture<SkullTexture> resolve(UUID playerId) {
+        Long retryAt = RETRY_AT.get(playerId);
+        if (retryAt != null) {
+            if (System.currentTimeMillis() < retryAt) return null;
+            RETRY_AT.remove(playerId);
+        }
+        
+        CompletableFuture<SkullTexture> pending = new CompletableFuture<>();
+        CompletableFuture<SkullTexture> existing = PENDING.putIfAbsent(playerId, pending);
+        if (existing != null) return existing;
+        
+        CompletableFuture<SkullTexture> future;
+        try {
+            future = resolver.resolve(playerId);
+        } catch (Exception e) {
+            future = CompletableFuture.failedFuture(e);
+        }
+        future.whenComplete((texture, throwable) -> {
+            if (throwable != null) {
+                // The lookup may succeed later, e.g. once the profile API is reachable again
+                long delay = FAILURE_DELAYS.merge(playerId, FAILURE_RETRY_MILLIS,
+                        (previous, initial) -> Math.min(previous * 2, MISSING_RETRY_MILLIS));
+                RETRY_AT.put(playerId, System.currentTimeMillis() + delay);
+            } else if (texture == null) {
+                FAILURE_DELAYS.remove(playerId);
+                RETRY_AT.put(playerId, System.currentTimeMillis() + MISSING_RETRY_MILLIS);
+            } else {
+                FAILURE_DELAYS.remove(playerId);
+                synchronized (CACHE) {
+                    CACHE.put(playerId, new CachedTexture(texture, System.currentTimeMillis()));
+                }
+                scheduleSave();
+            }
+            PENDING.remove(playerId, pending);
+            pending.complete(throwable != null ? null : texture);
+        });
+        return pending;
+    }
+    
+    /**
+     * Retrieves the texture available right now: the one of a resolution which already completed,
+     * otherwise the cached one, even if stale.
+     *
+     * @param future the pending resolution, may be {@code null}
+     * @param cached the cached texture, may be {@code null}
+     * @return the available {@link SkullTexture}, or {@code null} if there is none yet
+     */
+    @Nullable
+    private static SkullTexture getNow(@Nullable CompletableFuture<SkullTexture> future, @Nullable CachedTexture cached) {
+        SkullTexture texture = future == null ? null : future.getNow(null);
+        if (texture == null && cached != null) {
+            texture = cached.texture();
+        }
+        return texture;
+    }
+    
+    private static ItemStack createSkull(UUID playerId, @Nullable SkullTexture texture) {
+        ItemStack skull = new ItemStack(Material.PLAYER_HEAD);
+        SkullMeta skullMeta = (SkullMeta) skull.getItemMeta();
+        if (skullMeta != null) {
+            skullMeta.setPlayerProfile(texture != null ? texture.toProfile() : Bukkit.createProfile(playerId));
+            skull.setItemMeta(skullMeta);
+        }
+        return skull;
+    }
+    
+    /**
+     * Applies a resolved texture to the untextured heads of its player in the open inventory of a menu.
+     *
+     * @param menu    the {@link Menu} displaying the heads
+     * @param texture the resolved {@link SkullTexture}
+     */
+    private static void patch(Menu menu, SkullTexture texture) {
+        if (! menu.isOpen()) return;
+        
+        Inventory inventory = menu.getInventory();
+        for (int slot = 0; slot < inventory.getSize(); slot++) {
+            ItemStack item = inventory.getItem(slot);
+            if (item == null || item.getType() != Material.PLAYER_HEAD) continue;
+            if (! (item.getItemMeta() instanceof SkullMeta skullMeta)) continue;
+            
+            PlayerProfile profile = skullMeta.getPlayerProfile();
+            if (profile == null || ! texture.playerId().equals(profile.getId()) || profile.hasTextures()) continue;
+            
+            skullMeta.setPlayerProfile(texture.toProfile());
+            item.setItemMeta(skullMeta);
+            inventory.setItem(slot, item);
+        }
+    }
+    
+    private static void scheduleSave() {
+        if (! diskCacheEnabled || ! MenuLib.getPlugin().isEnabled() || ! saveScheduled.compareAndSet(false, true)) return;
+        
+        MenuScheduler.runAsync(() -> {
+            saveScheduled.set(false);
+            save();
+        });
+    }
+    
+    private static void load() {
+        File file = getCacheFile();
+        if (! file.isFile()) return;
+        
+        YamlConfiguration configuration = YamlConfiguration.loadConfiguration(file);
+        ConfigurationSection textures = configuration.getConfigurationSection("textures");
+        if (textures == null) return;
+        
+        for (String key : textures.getKeys(false)) {
+            ConfigurationSection section = textures.getConfigurationSection(key);
+            if (section == null || section.getString("value") == null) continue;
+            
+            UUID playerId;
+            try {
+                playerId = UUID.fromString(key);
+            } catch (IllegalArgumentException e) {
+                continue;
+            }
+            SkullTexture texture = new SkullTexture(playerId, section.getString("name"), section.getString("value"), section.getString("signature"));
+            synchronized (CACHE) {
+                CACHE.putIfAbsent(playerId, new CachedTexture(texture, section.getLong("resolved-at")));
+            }
+        }
+    }
+    
+    private static File getCacheFile() {
+        return new File(MenuLib.getPlugin().getDataFolder(), CACHE_FILE);
+    }
+    
+    private record CachedTexture(SkullTexture texture, long resolvedAt) {
+        private boolean isStale() {
+            return System.currentTimeMillis() - resolvedAt > REFRESH_AFTER_MILLIS;
+        }
+    }
+}
@@ -0,0 +1,52 @@
+package dev.xernas.menulib.skull;
+
+import com.destroystokyo.paper.profile.PlayerProfile;
+import com.destroystokyo.paper.profile.ProfileProperty;
+import org.bukkit.Bukkit;
+import org.jetbrains.annotations.Nullable;
+
+import java.util.UUID;
+
+/**
+ * The skin texture of a player, as stored in the {@code textures} property of a {@link PlayerProfile}.
+ *
+ * @param playerId  the UUID of the player
+ * @param name      the name of the player, or {@code null} if unknown
+ * @param value     the base64 value of the {@code textures} property
+ * @param signature the signature of the {@code textures} property, or {@code null} if unsigned
+ */
+public record SkullTexture(UUID playerId, @Nullable String name, String value, @Nullable String signature) {
+    
+    /**
+     * The name of the profile property holding the texture.
+     */
+    public static final String TEXTURES_PROPERTY = "textures";
+    
+    /**
+     * Extracts the texture of a profile.
+     *
+     * @param profile the {@link PlayerProfile}, completed or not
+     * @return the {@link SkullTexture} of the profile, or {@code null} if the profile has no id or no texture
+     */
+    @Nullable
+    public static SkullTexture of(@Nullable PlayerProfile profile) {
+        if (profile == null || profile.getId() == null) return null;
+        for (ProfileProperty property : profile.getProperties()) {
+            if (property.getName().equals(TEXTURES_PROPERTY)) {
+                return new SkullTexture(profile.getId(), profile.getName(), property.getValue(), property.getSignature());
+            }
+        }
+        return null;
+    }
+    
+    /**
+     * Creates a new profile holding this texture.
+     *
+     * @return a new textured {@link PlayerProfile}
+     */
+    public PlayerProfile toProfile() {
+        PlayerProfile profile = Bukkit.createProfile(playerId, name);
+        profile.setProperty(new ProfileProperty(TEXTURES_PROPERTY, value, signature));
+        return profile;
+    }
+}
@@ -0,0 +1,414 @@
+package dev.xernas.menulib.sort;
+
+import dev.xernas.menulib.PageSource;
+import dev.xernas.menulib.search.SearchIndex;
+import it.unimi.dsi.fastutil.ints.IntArrays;
+import org.bukkit.inventory.ItemStack;
+import org.jetbrains.annotations.NotNull;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collection;
+import java.util.IdentityHashMap;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.function.Function;
+import java.util.function.ToDoubleFunction;
+import java.util.function.ToLongFunction;
+
+/**
+ * Entries sorted by several named orders, such as a price, a date and a name.
+ * <p>
+ * The sort key of each order is extracted once per entry into a primitive array, or a normalized string
+ * for text orders, so comparing two entries never reads them again. The sorted permutation of the entry ids
+ * of an order is built the first time the order is read, then kept: adding, updating or removing an entry
+ * moves only its own position in each permutation, and switching between orders or directions costs no sort.
+ * A descending order is read backwards.
+ * <p>
+ * Entries are identified by identity, and entries with the same key keep their insertion order.
+ * The index is thread-safe.
+ *
+ * @param <T> the type of the entries
+ */
+public final class SortIndex<T> {
+    
+    private static final int MIN_COMPACTION = 64;
+    
+    private final Map<T, Integer> ids = new IdentityHashMap<>();
+    private final Map<String, Order<T>> orders = new LinkedHashMap<>();
+    
+    private Object[] entries = new Object[16];
+    private int nextId;
+    
+    /**
+     * Adds an order sorting the entries by a numeric key.
+     *
+     * @param name the name of the order, displayed to the players
+     * @param key  the function extracting the key of an entry
+     * @return the current instance of {@link SortIndex}
+     */
+    public synchronized SortIndex<T> addOrder(String name, ToLongFunction<? super T> key) {
+        return addOrder(name, new Order<>(key, null));
+    }
+    
+    /**
+     * Adds an order sorting the entries by a decimal key.
+     *
+     * @param name the name of the order, displayed to the players
+     * @param key  the function extracting the key of an entry
+     * @return the current instance of {@link SortIndex}
+     */
+    public synchronized SortIndex<T> addDoubleOrder(String name, ToDoubleFunction<? super T> key) {
+        return addOrder(name, new Order<>(entry -> sortableBits(key.applyAsDouble(entry)), null));
+    }
+    
+    /**
+     * Adds an order sorting the entries by a text key, ignoring color codes, accents and case,
+     * see {@link SearchIndex#normalize(String)}.
+     *
+     * @param name the name of the order, displayed to the players
+     * @param key  the function extracting the key of an entry
+     * @return the current instance of {@link SortIndex}
+     */
+    public synchronized SortIndex<T> addTextOrder(String name, Function<? super T, String> key) {
+        return addOrder(name, new Order<>(null, key));
+    }
+    
+    private SortIndex<T> addOrder(String name, Order<T> order) {
+        order.ensureCapacity(entries.length);
+        for (int id = 0; id < nextId; id++) {
+            if (entries[id] != null) {
+                order.extract(id, get(id));
+            }
+        }
+        orders.put(name, order);
+        return this;
+    }
+    
+    /**
+     * Retrieves the names of the orders, in the order they were added.
+     *
+     * @return an immutable {@link List} of names
+     */
+    public synchronized List<String> getOrderNames() {
+        return List.copyOf(orders.keySet());
+    }
+    
+    /**
+     * Adds an entry, extracting its key for every order.
+     *
+     * @param entry the entry to add
+     * @return {@code true} if the entry was added, {@code false} if it is already in the index
+     */
+    public synchronized boolean add(T entry) {
+        if (ids.containsKey(entry)) return false;
+        
+        int id = nextId++;
+        if (id == entries.length) {
+            entries = Arrays.copyOf(entries, entries.length + (entries.length >> 1));
+            for (Order<T> order : orders.values()) {
+                order.ensureCapacity(entries.length);
+            }
+        }
+        entries[id] = entry;
+        ids.put(entry, id);
+        for (Order<T> order : orders.values()) {
+            order.extract(id, entry);
+            order.insert(id);
+        }
+        return true;
+    }
+    
+    /**
+     * Adds several entries, see {@link #add(Object)}.
+     *
+     * @param entries the entries to add
+     */
+    public synchronized void addAll(Collection<? extends T> entries) {
+        for (T entry : entries) {
+            add(entry);
+        }
+    }
+    
+    /**
+     * Extracts the keys of an entry again after it changed, and moves it in every order.
+     *
+     * @param entry the changed entry
+     * @return {@code true} if the entry is in the index, {@code false} otherwise
+     */
+    public synchronized boolean update(T entry) {
+        Integer id = ids.get(entry);
+        if (id == null) return false;
+        
+        for (Order<T> order : orders.values()) {
+            order.delete(id);
+            order.extract(id, entry);
+            order.insert(id);
+        }
+        return true;
+    }
+    
+    /**
+     * Removes an entry.
+     *
+     * @param entry the entry to remove
+     * @return {@code true} if the entry was removed, {@code false} if it was not in the index
+     */
+    public synchronized boolean remove(T entry) {
+        Integer id = ids.remove(entry);
+        if (id == null) return false;
+        
+        for (Order<T> order : orders.values()) {
+            order.delete(id);
+            order.clear(id);
+        }
+        entries[id] = null;
+        
+        int removed = nextId - ids.size();
+        if (removed >= MIN_COMPACTION && removed > ids.size()) {
+            compact();
+        }
+        return true;
+    }
+    
+    /**
+     * Removes every entry, keeping the orders.
+     */
+    public synchronized void clear() {
+        ids.clear();
+        entries = new Object[16];
+        nextId = 0;
+        for (Order<T> order : orders.values()) {
+            order.reset(entries.length);
+        }
+    }
+    
+    /**
+     * Retrieves the number of entries.
+     *
+     * @return the number of entries
+     */
+    public synchronized int size() {
+        return ids.size();
+    }
+    
+    /**
+     * Retrieves a window of the entries sorted by an order.
+     *
+     * @param orderName  the name of the order
+     * @param descending {@code true} to read the order from the greatest key, {@code false} otherwise
+     * @param offset     the index of the first entry to retrieve, starting from 0
+     * @param limit      the maximum number of entries to retrieve
+     * @return a new {@link List} of at most {@code limit} entries, empty if {@code offset} is past the last entry
+     * @throws IllegalArgumentException if the order does not exist
+     */
+    public synchronized List<T> fetch(String orderName, boolean descending, int offset, int limit) {
+        int size = ids.size();
+        if (offset < 0 || limit <= 0 || offset >= size) {
+            return List.of();
+        }
+        
+        int[] permutation = getPermutation(orderName);
+        int end = Math.min(size, offset + limit);
+        List<T> window = new ArrayList<>(end - offset);
+        for (int i = offset; i < end; i++) {
+            window.add(get(permutation[descending ? size - 1 - i : i]));
+        }
+        return window;
+    }
+    
+    /**
+     * Creates a {@link PageSource} paginating the entries sorted by an order.
+     *
+     * @param orderName  the name of the order
+     * @param descending {@code true} to read the order from the greatest key, {@code false} otherwise
+     * @param itemMapper the function creating the item displayed for an entry, called only for the displayed entries
+     * @return a {@link PageSource} following the changes of the index
+     */
+    public PageSource view(String orderName, boolean descending, Function<? super T, ? extends ItemStack> itemMapper) {
+        return new PageSource() {
+            @Override
+            public int count() {
+                return size();
+            }
+            
+            @Override
+            public @NotNull List<ItemStack> fetch(int offset, int limit) {
+                List<T> window = SortIndex.this.fetch(orderName, descending, offset, limit);
+                List<ItemStack> items = new ArrayList<>(window.size());
+                for (T entry : window) {
+                    items.add(itemMapper.apply(entry));
+                }
+                return items;
+            }
+        };
+    }
+    
+    private int[] getPermutation(String orderName) {
+        Order<T> order = orders.get(orderName);
+        if (order == null) {
+            throw new IllegalArgumentException("Unknown sort order: " + orderName);
+        }
+        if (order.permutation == null) {
+            int[] permutation = new int[Math.max(16, entries.length)];
+            int count = 0;
+            for (int id = 0; id < nextId; id++) {
+                if (entries[id] != null) {
+                    permutation[count++] = id;
+                }
+            }
+            IntArrays.quickSort(permutation, 0, count, order::compare);
+            order.permutation = permutation;
+            order.size = count;
+        }
+        return order.permutation;
+    }
+    
+    private void compact() {
+        int[] newIds = new int[nextId];
+        Arrays.fill(newIds, -1);
+        Object[] compacted = new Object[Math.max(16, ids.size() + (ids.size() >> 1))];
+        int count = 0;
+        for (int id = 0; id < nextId; id++) {
+            if (entries[id] == null) continue;
+            
+            newIds[id] = count;
+            compacted[count] = entries[id];
+            count++;
+        }
+        for (Order<T> order : orders.values()) {
+            order.compact(newIds, nextId, compacted.length);
+        }
+        
+        entries = compacted;
+        nextId = count;
+        for (int id = 0; id < count; id++) {
+            ids.put(get(id), id);
+        }
+    }
+    
+    @SuppressWarnings("unchecked")
+    private T get(int id) {
+        return (T) entries[id];
+    }
+    
+    private static long sortableBits(double value) {
+        long bits = Double.doubleToLongBits(value);
+        return bits ^ ((bits >> 63) & Long.MAX_VALUE);
+    }
+    
+    private static final class Order<T> {
+        private final ToLongFunction<? super T> numericKey;
+        private final Function<? super T, String> textKey;
+        private long[] numbers;
+        private String[] texts;
+        private int[] permutation;
+        private int size;
+        
+        private Order(ToLongFunction<? super T> numericKey, Function<? super T, String> textKey) {
+            this.numericKey = numericKey;
+            this.textKey = textKey;
+            reset(16);
+        }
+        
+        private void reset(int capacity) {
+            numbers = numericKey == null ? null : new long[capacity];
+            texts = numericKey == null ? new String[capacity] : null;
+            permutation = null;
+            size = 0;
+        }
+        
+        private void ensureCapacity(int capacity) {
+            if (numbers != null && numbers.length < capacity) {
+                numbers = Arrays.copyOf(numbers, capacity);
+            }
+            if (texts != null && texts.length < capacity) {
+                texts = Arrays.copyOf(texts, capacity);
+            }
+        }
+        
+        private void extract(int id, T entry) {
+            if (numbers != null) {
+                numbers[id] = numericKey.applyAsLong(entry);
+            } else {
+                texts[id] = SearchIndex.normalize(textKey.apply(entry));
+            }
+        }
+        
+        private void clear(int id) {
+            if (texts != null) {
+                texts[id] = null;
+            }
+        }
+        
+        private int compare(int a, int b) {
+            int result = numbers != null ? Long.compare(numbers[a], numbers[b]) : texts[a].compareTo(texts[b]);
+            return result != 0 ? result : Integer.compare(a, b);
+        }
+        
+        private int search(int id) {
+            int low = 0;
+            int high = size - 1;
+            while (low <= high) {
+                int middle = (low + high) >>> 1;
+                int result = compare(permutation[middle], id);
+                if (result < 0) {
+                    low = middle + 1;
+                } else if (result > 0) {
+                    high = middle - 1;
+                } else {
+                    return middle;
+                }
+            }
+            return - (low + 1);
+        }
+        
+        private void insert(int id) {
+            if (permutation == null) return;
+            
+            int position = search(id);
+            if (position >= 0) return;
+            
+            position = - position - 1;
+            if (size == permutation.length) {
+                permutation = Arrays.copyOf(permutation, size + (size >> 1) + 1);
+            }
+            System.arraycopy(permutation, position, permutation, position + 1, size - position);
+            permutation[position] = id;
+            size++;
+        }
+        
+        private void delete(int id) {
+            if (permutation == null) return;
+            
+            int position = search(id);
+            if (position < 0) return;
+            
+            System.arraycopy(permutation, position + 1, permutation, position, size - position - 1);
+            size--;
+        }
+        
+        private void compact(int[] newIds, int oldNextId, int capacity) {
+            long[] oldNumbers = numbers;
+            String[] oldTexts = texts;
+            numbers = oldNumbers == null ? null : new long[capacity];
+            texts = oldTexts == null ? null : new String[capacity];
+            for (int id = 0; id < oldNextId; id++) {
+                int newId = newIds[id];
+                if (newId < 0) continue;
+                
+                if (oldNumbers != null) {
+                    numbers[newId] = oldNumbers[id];
+                } else {
+                    texts[newId] = oldTexts[id];
+                }
+            }
+            if (permutation != null) {
+                for (int i = 0; i < size; i++) {
+                    permutation[i] = newIds[permutation[i]];
+                }
+            }
+        }
+    }
+}
@@ -0,0 +1,350 @@
+package dev.xernas.menulib.template;
+
+import dev.xernas.menulib.Menu;
+import dev.xernas.menulib.utils.InventorySize;
+import dev.xernas.menulib.utils.ItemBuilder;
+import dev.xernas.menulib.utils.SlotLayout;
+import net.kyori.adventure.text.Component;
+import org.bukkit.Material;
+import org.bukkit.configuration.ConfigurationSection;
+import org.bukkit.entity.Player;
+import org.bukkit.event.inventory.InventoryClickEvent;
+import org.bukkit.inventory.meta.ItemMeta;
+import org.jetbrains.annotations.Nullable;
+
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Locale;
+import java.util.Map;
+import java.util.function.Consumer;
+
+/**
+ * An immutable menu definition, compiled once from a YAML section and shared by every player.
+ * <p>
+ * Compiling builds the items, the click handlers and the {@link SlotLayout} of the menu. The compiled items
+ * are never handed out: each menu gets its own copies of the items without placeholders, made once
+ * by {@link #copyStaticContent(Menu)}, so only the items, the title and the action arguments containing
+ * {@link Placeholders} are resolved when a player opens the menu.
+ * <p>
+ * A definition looks like this:
+ * <pre>{@code
+ * title: "§8Profil de {player}"
+ * texture: null
+ * size: NORMAL
+ * permission: "monplugin.profil"
+ * pattern:
+ *   - "#########"
+ *   - "#...a...#"
+ *   - "####c####"
+ * items:
+ *   "#":
+ *     material: GRAY_STAINED_GLASS_PANE
+ *     hide-tooltip: true
+ *   a:
+ *     material: PLAYER_HEAD
+ *     name: "§e{player}"
+ *     lore: ["§7Cliquez pour voir vos statistiques"]
+ *     actions: ["command: stats"]
+ *   c:
+ *     material: BARRIER
+ *     name: "§cFermer"
+ *     id: close
+ *     actions: ["close"]
+ * }</pre>
+ * Each character of the pattern refers to an item, {@code '.'} and spaces are empty slots.
+ * The size is optional and defaults to the number of rows of the pattern.
+ * See {@link TemplateActions} for the supported actions.
+ */
+public final class MenuTemplate {
+    
+    private final String id;
+    private final InventorySize size;
+    private final String title;
+    private final boolean dynamicTitle;
+    private final String texture;
+    private final String permission;
+    private final SlotLayout layout;
+    private final Map<Integer, ItemBuilder> staticContent;
+    private final int[] dynamicSlots;
+    private final TemplateItem[] dynamicItems;
+    
+    private MenuTemplate(String id, InventorySize size, String title, String texture, String permission, SlotLayout layout,
+                         Map<Integer, ItemBuilder> staticContent, int[] dynamicSlots, TemplateItem[] dynamicItems) {
+        this.id = id;
+        this.size = size;
+        this.title = title;
+        this.dynamicTitle = Placeholders.contains(title);
+        this.texture = texture;
+        this.permission = permission;
+        this.layout = layout;
+        this.staticContent = staticContent;
+        this.dynamicSlots = dynamicSlots;
+        this.dynamicItems = dynamicItems;
+    }
+    
+    /**
+     * Compiles a menu definition. This method can be called from any thread.
+     *
+     * @param id      the identifier of the template
+     * @param section the {@link ConfigurationSection} holding the definition
+     * @return the compiled {@link MenuTemplate}
+     * @throws IllegalArgumentException if the definition is invalid
+     */
+    public static MenuTemplate compile(String id, ConfigurationSection section) {
+        List<String> pattern = section.getStringList("pattern");
+        if (pattern.isEmpty()) {
+            throw new IllegalArgumentException("The menu " + id + " has no pattern");
+        }
+        if (pattern.size() > 6) {
+            throw new IllegalArgumentException("The pattern of the menu " + id + " must have between 1 and 6 rows, found " + pattern.size());
+        }
+        String[] rows = pattern.toArray(new String[0]);
+        SlotLayout layout;
+        try {
+            layout = SlotLayout.fromPattern(rows);
+        } catch (IllegalArgumentException e) {
+            throw new IllegalArgumentException("The pattern of the menu " + id + " is invalid: " + e.getMessage(), e);
+        }
+        InventorySize size = compileSize(id, section.getString("size"), rows.length);
+        
+        ConfigurationSection itemsSection = section.getConfigurationSection("items");
+        Map<Character, TemplateItem> items = new HashMap<>();
+        if (itemsSection != null) {
+            for (String key : itemsSection.getKeys(false)) {
+                ConfigurationSection itemSection = itemsSection.getConfigurationSection(key);
+                if (key.length() != 1 || itemSection == null) {
+                    throw new IllegalArgumentException("The item " + key + " of the menu " + id + " must be a section named by a single character");
+                }
+                try {
+                    items.put(key.charAt(0), TemplateItem.compile(itemSection));
+                } catch (IllegalArgumentException e) {
+                    throw new IllegalArgumentException("The item " + key + " of the menu " + id + " is invalid: " + e.getMessage(), e);
+                }
+            }
+        }
+        
+        Map<Integer, ItemBuilder> staticContent = new HashMap<>();
+        List<Integer> dynamicSlots = new ArrayList<>();
+        List<TemplateItem> dynamicItems = new ArrayList<>();
+        for (int row = 0; row < rows.length; row++) {
+            for (int column = 0; column < rows[row].length(); column++) {
+                char character = rows[row].charAt(column);
+                if (character == '.' || character == ' ') continue;
+                
+                TemplateItem item = items.get(character);
+                if (item == null) {
+                    throw new IllegalArgumentException("The character '" + character + "' of the pattern of the menu " + id + " has no item");
+                }
+                int slot = row * 9 + column;
+                if (item.isDynamic()) {
+                    dynamicSlots.add(slot);
+                    dynamicItems.add(item);
+                } else {
+                    staticContent.put(slot, item.getItem());
+                }
+            }
+        }
+        
+        return new MenuTemplate(
+                id,
+                size,
+                section.getString("title", id),
+                section.getString("texture"),
+                section.getString("permission"),
+                layout,
+                Collections.unmodifiableMap(staticContent),
+                dynamicSlots.stream().mapToInt(Integer::intValue).toArray(),
+                dynamicItems.toArray(new TemplateItem[0])
+        );
+    }
+    
+    private static InventorySize compileSize(String id, @Nullable String name, int rows) {
+        if (name == null) {
+            for (InventorySize size : InventorySize.values()) {
+                if (size.getSize() == rows * 9) return size;
+            }
+            throw new IllegalArgumentException("The pattern of the menu " + id + " must have between 1 and 6 rows, found " + rows);
+        }
+        
+        InventorySize size;
+        try {
+            size = InventorySize.valueOf(name.toUpperCase(Locale.ROOT));
+        } catch (IllegalArgumentException e) {
+            throw new IllegalArgumentException("Unknown size " + name + " for the menu " + id, e);
+        }
+        if (size.getSize() < rows * 9) {
+            throw new IllegalArgumentException("The pattern of the menu " + id + " does not fit in the size " + size);
+        }
+        return size;
+    }
+    
+    /**
+     * Retrieves the identifier of the template.
+     *
+     * @return the identifier, the name of the file for templates loaded by {@link MenuTemplates}
+     */
+    public String getId() {
+        return id;
+    }
+    
+    /**
+     * Retrieves the size of the menu.
+     *
+     * @return the {@link InventorySize} of the menu
+     */
+    public InventorySize getSize() {
+        return size;
+    }
+    
+    /**
+     * Retrieves the title of the menu for a player.
+     *
+     * @param player the {@link Player} viewing the menu
+     * @return the title, with its placeholders resolved
+     */
+    public String getTitle(Player player) {
+        return dynamicTitle ? Placeholders.apply(title, player) : title;
+    }
+    
+    /**
+     * Retrieves the texture of the menu.
+     *
+     * @return the texture, or {@code null} if the menu has none
+     */
+    @Nullable
+    public String getTexture() {
+        return texture;
+    }
+    
+    /**
+     * Retrieves the permission required to open the menu.
+     *
+     * @return the permission, or {@code null} if the menu requires none
+     */
+    @Nullable
+    public String getPermission() {
+        return permission;
+    }
+    
+    /**
+     * Retrieves the slot layout of the pattern, where the slots holding an item are static.
+     *
+     * @return the {@link SlotLayout} of the menu
+     */
+    public SlotLayout getLayout() {
+        return layout;
+    }
+    
+    /**
+     * Copies the items without placeholders for a menu. The copies belong to the menu,
+     * which can keep them for all its renders, see {@link #getContent(Menu, Player, Map)}.
+     *
+     * @param menu the {@link Menu} the items are copied for
+     * @return the items without placeholders, by slot, in an unmodifiable map
+     */
+    public Map<Integer, ItemBuilder> copyStaticContent(Menu menu) {
+        Map<Integer, ItemBuilder> content = new HashMap<>(staticContent.size());
+        for (Map.Entry<Integer, ItemBuilder> entry : staticContent.entrySet()) {
+            content.put(entry.getKey(), new ItemBuilder(menu, entry.getValue()));
+        }
+        return Collections.unmodifiableMap(content);
+    }
+    
+    /**
+     * Builds the content of the menu for a player, copying the items without placeholders.
+     * Menus rendered several times should keep the result of {@link #copyStaticContent(Menu)}
+     * and use {@link #getContent(Menu, Player, Map)} instead.
+     *
+     * @param menu   the {@link Menu} the content is built for
+     * @param player the {@link Player} viewing the menu
+     * @return the content of the menu
+     */
+    public Map<Integer, ItemBuilder> getContent(Menu menu, Player player) {
+        return getContent(menu, player, copyStaticContent(menu));
+    }
+    
+    /**
+     * Builds the content of the menu for a player from the items without placeholders already
+     * copied for the menu. The given map is returned as is if no item has placeholders.
+     *
+     * @param menu          the {@link Menu} the content is built for
+     * @param player        the {@link Player} viewing the menu
+     * @param staticContent the items copied for the menu by {@link #copyStaticContent(Menu)}
+     * @return the content of the menu, which must not be modified
+     */
+    public Map<Integer, ItemBuilder> getContent(Menu menu, Player player, Map<Integer, ItemBuilder> staticContent) {
+        if (dynamicSlots.length == 0) return staticContent;
+        
+        Map<Integer, ItemBuilder> content = new HashMap<>(staticContent);
+        for (int i = 0; i < dynamicSlots.length; i++) {
+            content.put(dynamicSlots[i], dynamicItems[i].resolve(menu, player));
+        }
+        return content;
+    }
+    
+    private static final class TemplateItem {
+        private final ItemBuilder item;
+        private final String name;
+        private final List<String> lore;
+        private final boolean dynamic;
+        
+        private TemplateItem(ItemBuilder item, String name, List<String> lore) {
+            this.item = item;
+            this.name = name;
+            this.lore = lore;
+            this.dynamic = Placeholders.contains(name) || lore.stream().anyMatch(Placeholders::contains);
+        }
+        
+        private static TemplateItem compile(ConfigurationSection section) {
+            String materialName = section.getString("material");
+            Material material = materialName == null ? null : Material.matchMaterial(materialName);
+            if (material == null || ! material.isItem()) {
+                throw new IllegalArgumentException("Unknown material " + materialName);
+            }
+            String name = section.getString("name");
+            List<String> lore = List.copyOf(section.getStringList("lore"));
+            Consumer<InventoryClickEvent> clickEvent = TemplateActions.compile(section.getStringList("actions"));
+            
+            ItemBuilder item = new ItemBuilder(null, material, meta -> applyText(meta, name, lore, null));
+            item.setAmount(section.getInt("amount", 1));
+            String itemId = section.getString("id");
+            if (itemId != null) {
+                item.setItemId(itemId);
+            }
+            if (section.getBoolean("hide-tooltip")) {
+                item.hideTooltip(true);
+            }
+            if (clickEvent != null) {
+                item.setOnClick(clickEvent);
+            }
+            return new TemplateItem(item, name, lore);
+        }
+        
+        private static void applyText(ItemMeta meta, String name, List<String> lore, @Nullable Player player) {
+            if (name != null) {
+                meta.displayName(Component.text(player == null ? name : Placeholders.apply(name, player)));
+            }
+            if (! lore.isEmpty()) {
+                List<Component> lines = new ArrayList<>(lore.size());
+                for (String line : lore) {
+                    lines.add(Component.text(player == null ? line : Placeholders.apply(line, player)));
+                }
+                meta.lore(lines);
+            }
+        }
+        
+        private boolean isDynamic() {
+            return dynamic;
+        }
+        
+        private ItemBuilder getItem() {
+            return item;
+        }
+        
+        private ItemBuilder resolve(Menu menu, Player player) {
+            return new ItemBuilder(menu, item, meta -> applyText(meta, name, lore, player));
+        }
+    }
+}
@@ -0,0 +1,134 @@
+package dev.xernas.menulib.template;
+
+import dev.xernas.menulib.MenuLib;
+import dev.xernas.menulib.utils.MenuScheduler;
+import org.bukkit.configuration.file.YamlConfiguration;
+import org.bukkit.entity.Player;
+import org.jetbrains.annotations.Nullable;
+
+import java.io.File;
+import java.util.HashMap;
+import java.util.Locale;
+import java.util.Map;
+import java.util.Set;
+import java.util.concurrent.CompletableFuture;
+
+/**
+ * The registry of the {@link MenuTemplate}s loaded from the YAML files of a directory, one menu per file,
+ * identified by the name of the file without its {@code .yml} extension.
+ * <p>
+ * Loading and reloading read and compile every file on an async thread, then replace all the templates
+ * at once, so a template is never seen half compiled. A file that fails to compile is logged and keeps
+ * its previous template, if any.
+ */
+public final class MenuTemplates {
+    
+    private static volatile Map<String, MenuTemplate> templates = Map.of();
+    private static volatile File directory;
+    
+    private MenuTemplates() {
+    }
+    
+    /**
+     * Loads the templates of the {@code menus} directory of the data folder of the plugin.
+     *
+     * @return a {@link CompletableFuture} completed with the number of loaded templates
+     */
+    public static CompletableFuture<Integer> load() {
+        return load(new File(MenuLib.getPlugin().getDataFolder(), "menus"));
+    }
+    
+    /**
+     * Loads the templates of a directory, which is used by the next reloads.
+     *
+     * @param directory the directory holding the YAML files
+     * @return a {@link CompletableFuture} completed with the number of loaded templates
+     */
+    public static CompletableFuture<Integer> load(File directory) {
+        MenuTemplates.directory = directory;
+        return reload();
+    }
+    
+    /**
+     * Compiles again the templates of the loaded directory in the background and swaps them atomically.
+     * Menus already open keep their template until they are opened again.
+     *
+     * @return a {@link CompletableFuture} completed with the number of loaded templates
+     * @throws IllegalStateException if no directory has been loaded
+     */
+    public static CompletableFuture<Integer> reload() {
+        File directory = MenuTemplates.directory;
+        if (directory == null) {
+            throw new IllegalStateException("No menu directory has been loaded");
+        }
+        
+        CompletableFuture<Integer> result = new CompletableFuture<>();
+        MenuScheduler.runAsync(() -> {
+            try {
+                Map<String, MenuTemplate> compiled = compileAll(directory);
+                templates = compiled;
+                result.complete(compiled.size());
+            } catch (Exception e) {
+                MenuLib.getPlugin().getSLF4JLogger().error("An error occurred while loading the menus of {}: {}", directory, e.getMessage(), e);
+                result.completeExceptionally(e);
+            }
+        });
+        return result;
+    }
+    
+    private static Map<String, MenuTemplate> compileAll(File directory) {
+        File[] files = directory.listFiles((dir, name) -> name.endsWith(".yml"));
+        if (files == null) return Map.of();
+        
+        Map<String, MenuTemplate> previous = templates;
+        Map<String, MenuTemplate> compiled = new HashMap<>();
+        for (File file : files) {
+            String id = file.getName().substring(0, file.getName().length() - 4).toLowerCase(Locale.ROOT);
+            try {
+                compiled.put(id, MenuTemplate.compile(id, YamlConfiguration.loadConfiguration(file)));
+            } catch (Exception e) {
+                MenuLib.getPlugin().getSLF4JLogger().error("An error occurred while compiling the menu {}: {}", file.getName(), e.getMessage(), e);
+                MenuTemplate old = previous.get(id);
+                if (old != null) {
+                    compiled.put(id, old);
+                }
+            }
+        }
+        return Map.copyOf(compiled);
+    }
+    
+    /**
+     * Retrieves a loaded template.
+     *
+     * @param id the identifier of the template, case-insensitive
+     * @return the {@link MenuTemplate}, or {@code null} if there is none with this identifier
+     */
+    @Nullable
+    public static MenuTemplate get(String id) {
+        return templates.get(id.toLowerCase(Locale.ROOT));
+    }
+    
+    /**
+     * Retrieves the identifiers of the loaded templates.
+     *
+     * @return an immutable {@link Set} of identifiers
+     */
+    public static Set<String> getIds() {
+        return templates.keySet();
+    }
+    
+    /**
+     * Opens a template for a player.
+     *
+     * @param player the {@link Player} to open the menu for
+     * @param id     the identifier of the template, case-insensitive
+     * @return {@code true} if the template exists, {@code false} otherwise
+     */
+    public static boolean open(Player player, String id) {
+        MenuTemplate template = get(id);
+        if (template == null) return false;
+        
+        new TemplateMenu(player, template).open();
+        return true;
+    }
+}
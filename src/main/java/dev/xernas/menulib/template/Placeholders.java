@@ -0,0 +1,79 @@
+package dev.xernas.menulib.template;
+
+import org.bukkit.entity.Player;
+
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.function.Function;
+
+/**
+ * The per-player placeholders of the menu templates, written between braces, such as {@code {player}}.
+ * <p>
+ * {@code {player}} and {@code {uuid}} are built in, other placeholders can be registered with
+ * {@link #register(String, Function)}. Unknown placeholders are left as is.
+ */
+public final class Placeholders {
+    
+    private static final Map<String, Function<Player, String>> PLACEHOLDERS = new ConcurrentHashMap<>();
+    
+    static {
+        register("player", Player::getName);
+        register("uuid", player -> player.getUniqueId().toString());
+    }
+    
+    private Placeholders() {
+    }
+    
+    /**
+     * Registers a placeholder, replacing any placeholder of the same name.
+     *
+     * @param name     the name of the placeholder, without braces
+     * @param resolver the function resolving the value of the placeholder for a player
+     */
+    public static void register(String name, Function<Player, String> resolver) {
+        PLACEHOLDERS.put(name, resolver);
+    }
+    
+    /**
+     * Checks if a text may contain placeholders, in which case it must be resolved for each player.
+     *
+     * @param text the text to check, may be {@code null}
+     * @return {@code true} if the text contains an opening brace followed by a closing brace, {@code false} otherwise
+     */
+    public static boolean contains(String text) {
+        if (text == null) return false;
+        int start = text.indexOf('{');
+        return start >= 0 && text.indexOf('}', start) > start;
+    }
+    
+    /**
+     * Replaces the placeholders of a text with their values for a player.
+     *
+     * @param text   the text to resolve
+     * @param player the {@link Player} the placeholders are resolved for
+     * @return the resolved text, or the same text if it contains no placeholder
+     */
+    public static String apply(String text, Player player) {
+        if (! contains(text)) return text;
+        
+        StringBuilder builder = new StringBuilder(text.length() + 16);
+        int index = 0;
+        while (index < text.length()) {
+            int start = text.indexOf('{', index);
+            int end = start < 0 ? -1 : text.indexOf('}', start);
+            if (end < 0) break;
+            
+            Function<Player, String> resolver = PLACEHOLDERS.get(text.substring(start + 1, end));
+            builder.append(text, index, start);
+            if (resolver != null) {
+                builder.append(resolver.apply(player));
+                index = end + 1;
+            } else {
+                builder.append('{');
+                index = start + 1;
+            }
+        }
+        builder.append(text, index, text.length());
+        return builder.toString();
+    }
+}
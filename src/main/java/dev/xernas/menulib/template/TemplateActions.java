@@ -0,0 +1,105 @@
+package dev.xernas.menulib.template;
+
+import dev.xernas.menulib.Menu;
+import dev.xernas.menulib.MenuLib;
+import dev.xernas.menulib.utils.MenuScheduler;
+import net.kyori.adventure.text.Component;
+import org.bukkit.Bukkit;
+import org.bukkit.entity.Player;
+import org.bukkit.event.inventory.InventoryClickEvent;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Locale;
+import java.util.function.BiConsumer;
+import java.util.function.Consumer;
+
+/**
+ * Compiles the actions of the items of a menu template into click event handlers.
+ * <p>
+ * An action is written {@code type} or {@code type: argument}. The supported actions are:
+ * <ul>
+ *     <li>{@code close}: closes the menu;</li>
+ *     <li>{@code back}: opens the previous menu of the player;</li>
+ *     <li>{@code open: <template>}: opens another menu template;</li>
+ *     <li>{@code command: <command>}: makes the player run a command, without the leading slash;</li>
+ *     <li>{@code console: <command>}: makes the console run a command, on the global region;</li>
+ *     <li>{@code message: <message>}: sends a message to the player.</li>
+ * </ul>
+ * Arguments may contain {@link Placeholders}, resolved for the player who clicked.
+ */
+final class TemplateActions {
+    
+    private TemplateActions() {
+    }
+    
+    /**
+     * Compiles a list of actions into a single click event handler, shared by every player.
+     *
+     * @param actions the actions, in execution order
+     * @return the compiled handler, or {@code null} if there is no action
+     * @throws IllegalArgumentException if an action is unknown or misses its argument
+     */
+    static Consumer<InventoryClickEvent> compile(List<String> actions) {
+        if (actions == null || actions.isEmpty()) return null;
+        
+        List<BiConsumer<Player, InventoryClickEvent>> compiled = new ArrayList<>(actions.size());
+        for (String action : actions) {
+            compiled.add(compile(action));
+        }
+        
+        return e -> {
+            Player player = (Player) e.getWhoClicked();
+            for (BiConsumer<Player, InventoryClickEvent> action : compiled) {
+                action.accept(player, e);
+            }
+        };
+    }
+    
+    private static BiConsumer<Player, InventoryClickEvent> compile(String action) {
+        int separator = action.indexOf(':');
+        String type = (separator < 0 ? action : action.substring(0, separator)).trim().toLowerCase(Locale.ROOT);
+        String argument = separator < 0 ? "" : action.substring(separator + 1).trim();
+        
+        return switch (type) {
+            case "close" -> (player, e) -> player.closeInventory();
+            case "back" -> (player, e) -> {
+                Menu previous = MenuLib.popAndGetPreviousMenu(player);
+                if (previous != null) {
+                    previous.open(player);
+                }
+            };
+            case "open" -> {
+                String templateId = requireArgument(type, argument);
+                yield (player, e) -> MenuTemplates.open(player, Placeholders.apply(templateId, player));
+            }
+            case "command" -> {
+                String command = stripSlash(requireArgument(type, argument));
+                yield (player, e) -> player.performCommand(Placeholders.apply(command, player));
+            }
+            case "console" -> {
+                String command = stripSlash(requireArgument(type, argument));
+                yield (player, e) -> {
+                    String resolved = Placeholders.apply(command, player);
+                    MenuScheduler.runGlobal(() -> Bukkit.dispatchCommand(Bukkit.getConsoleSender(), resolved));
+                };
+            }
+            case "message" -> {
+                String message = requireArgument(type, argument);
+                yield (player, e) -> player.sendMessage(Component.text(Placeholders.apply(message, player)));
+            }
+            default -> throw new IllegalArgumentException("Unknown action: " + action);
+        };
+    }
+    
+    private static String requireArgument(String type, String argument) {
+        if (argument.isEmpty()) {
+            throw new IllegalArgumentException("The action " + type + " requires an argument");
+        }
+        return argument;
+    }
+    
+    private static String stripSlash(String command) {
+        return command.startsWith("/") ? command.substring(1) : command;
+    }
+}
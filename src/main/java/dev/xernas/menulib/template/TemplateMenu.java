@@ -0,0 +1,86 @@
+package dev.xernas.menulib.template;
+
+import dev.xernas.menulib.Menu;
+import dev.xernas.menulib.utils.InventorySize;
+import dev.xernas.menulib.utils.ItemBuilder;
+import org.bukkit.entity.Player;
+import org.bukkit.event.inventory.InventoryClickEvent;
+import org.bukkit.event.inventory.InventoryCloseEvent;
+import org.jetbrains.annotations.NotNull;
+import org.jetbrains.annotations.Nullable;
+
+import java.util.List;
+import java.util.Map;
+
+/**
+ * A {@link Menu} instantiated from a {@link MenuTemplate} for one player.
+ * <p>
+ * The menu keeps the template it was created with, so a reload of the templates
+ * applies to the menus opened after it, not to the menus already open.
+ */
+public class TemplateMenu extends Menu {
+    
+    private final MenuTemplate template;
+    private Map<Integer, ItemBuilder> staticContent;
+    
+    /**
+     * Constructs a new TemplateMenu for the specified player.
+     *
+     * @param owner    The {@link Player} who owns the menu
+     * @param template The {@link MenuTemplate} of the menu
+     */
+    public TemplateMenu(Player owner, MenuTemplate template) {
+        super(owner);
+        this.template = template;
+    }
+    
+    /**
+     * Retrieves the template the menu was created with.
+     *
+     * @return The {@link MenuTemplate} of the menu
+     */
+    public MenuTemplate getTemplate() {
+        return template;
+    }
+    
+    @Override
+    public @NotNull String getName() {
+        return template.getTitle(getOwner());
+    }
+    
+    @Override
+    public @Nullable String getTexture() {
+        return template.getTexture();
+    }
+    
+    @Override
+    public @NotNull InventorySize getInventorySize() {
+        return template.getSize();
+    }
+    
+    @Override
+    public String getPermission() {
+        return template.getPermission();
+    }
+    
+    @Override
+    public void onInventoryClick(InventoryClickEvent e) {
+    }
+    
+    @Override
+    public void onClose(InventoryCloseEvent event) {
+    }
+    
+    @Override
+    public @NotNull Map<Integer, ItemBuilder> getContent() {
+        if (staticContent == null) {
+            staticContent = template.copyStaticContent(this);
+        }
+        return template.getContent(this, getOwner(), staticContent);
+    }
+    
+    @Override
+    public List<Integer> getTakableSlot() {
+        return List.of();
+    }
+}
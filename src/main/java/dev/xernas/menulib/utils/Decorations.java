@@ -0,0 +1,75 @@
+package dev.xernas.menulib.utils;
+
+import net.kyori.adventure.text.Component;
+import org.bukkit.Material;
+import org.jetbrains.annotations.Nullable;
+
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+
+/**
+ * Interning cache of decoration items, such as filler panes and borders.
+ * Decorations with the same material and appearance are built once and the same frozen
+ * {@link ItemBuilder} is shared across slots, menus and players.
+ * <p>
+ * Shared decorations reject modifications, see {@link ItemBuilder#isFrozen()}.
+ * Decorations are not tied to a menu and therefore cannot hold click event handlers.
+ */
+public class Decorations {
+    
+    private static final Map<Key, ItemBuilder> DECORATIONS = new ConcurrentHashMap<>();
+    
+    /**
+     * Retrieves the shared filler of the given material, with a blank name and a hidden tooltip.
+     *
+     * @param material the material of the filler
+     * @return the shared {@link ItemBuilder}
+     */
+    public static ItemBuilder filler(Material material) {
+        return get(material, Component.text(" "), true);
+    }
+    
+    /**
+     * Retrieves the shared border of the given material, with a blank name.
+     *
+     * @param material the material of the border
+     * @return the shared {@link ItemBuilder}
+     */
+    public static ItemBuilder border(Material material) {
+        return get(material, Component.text(" "), false);
+    }
+    
+    /**
+     * Retrieves the shared decoration of the given material and appearance, building it on first use.
+     *
+     * @param material    the material of the decoration
+     * @param name        the display name of the decoration, or {@code null} to keep the default name
+     * @param hideTooltip whether the tooltip of the decoration is hidden
+     * @return the shared {@link ItemBuilder}
+     */
+    public static ItemBuilder get(Material material, @Nullable Component name, boolean hideTooltip) {
+        return DECORATIONS.computeIfAbsent(new Key(material, name, hideTooltip), Decorations::create);
+    }
+    
+    /**
+     * Clears the cache. Decorations already displayed or held by menus are not affected.
+     */
+    public static void clear() {
+        DECORATIONS.clear();
+    }
+    
+    private static ItemBuilder create(Key key) {
+        ItemBuilder item = new ItemBuilder(null, key.material(), itemMeta -> {
+            if (itemMeta != null && key.name() != null) {
+                itemMeta.displayName(key.name());
+            }
+        });
+        if (key.hideTooltip() && ! key.material().isAir()) {
+            item.hideTooltip(true);
+        }
+        return item.freeze();
+    }
+    
+    private record Key(Material material, @Nullable Component name, boolean hideTooltip) {
+    }
+}
@@ -0,0 +1,243 @@
+package dev.xernas.menulib.utils;
+
+import dev.xernas.menulib.Menu;
+import dev.xernas.menulib.MenuLib;
+import org.bukkit.entity.Player;
+import org.bukkit.inventory.Inventory;
+
+import java.util.ArrayList;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Queue;
+import java.util.concurrent.ConcurrentLinkedQueue;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.function.Supplier;
+
+/**
+ * Refreshes every dynamic item of every menu from a single task.
+ * <p>
+ * Each registered item is an entry (viewer, menu, slot, supplier, interval). The engine ticks once per
+ * server tick and keeps its entries in a timing wheel, so a tick only looks at the entries of one bucket
+ * and only runs the ones that are due. Due entries are grouped by menu: the inventory of the menu is
+ * written once per slot, even if several viewers registered the same slot, on the thread owning the first viewer.
+ * Entries are dropped automatically once the viewer is no longer looking at their menu.
+ * <p>
+ * The task of the engine is cancelled as soon as no entry is left, and started again by the next registration.
+ */
+public class DynamicItemEngine {
+    
+    private static final int WHEEL_SIZE = 64;
+    private static final int WHEEL_MASK = WHEEL_SIZE - 1;
+    
+    @SuppressWarnings("unchecked")
+    private static final List<Entry>[] WHEEL = new List[WHEEL_SIZE];
+    private static final Queue<Entry> PENDING = new ConcurrentLinkedQueue<>();
+    private static final AtomicInteger ENTRIES = new AtomicInteger();
+    
+    private static long currentTick = 0;
+    private static MenuTask engineTask;
+    
+    static {
+        for (int i = 0; i < WHEEL_SIZE; i++) {
+            WHEEL[i] = new ArrayList<>();
+        }
+    }
+    
+    /**
+     * Registers a dynamic item, refreshed every {@code intervalTicks} while the viewer looks at the menu.
+     * The first refresh happens on the next tick. This method can be called from any thread.
+     *
+     * @param viewer        the player viewing the menu
+     * @param menu          the menu the item belongs to
+     * @param slot          the slot of the item
+     * @param itemSupplier  the supplier of the item, called on the thread owning the viewer
+     * @param intervalTicks the interval between two refreshes, in ticks
+     * @return the {@link MenuTask} of the entry, cancel it to stop refreshing the item
+     */
+    public static MenuTask register(Player viewer, Menu menu, int slot, Supplier<ItemBuilder> itemSupplier, long intervalTicks) {
+        Entry entry = new Entry(viewer, menu, slot, itemSupplier, Math.max(1L, intervalTicks));
+        ENTRIES.incrementAndGet();
+        PENDING.add(entry);
+        start();
+        return entry;
+    }
+    
+    /**
+     * Retrieves the number of registered entries that are not cancelled yet.
+     *
+     * @return the number of live entries
+     */
+    public static int size() {
+        return ENTRIES.get();
+    }
+    
+    /**
+     * Cancels the task of the engine and every registered entry.
+     * Called when the plugin using {@code MenuLib} is disabled.
+     */
+    public static synchronized void stop() {
+        if (engineTask != null) {
+            engineTask.cancel();
+            engineTask = null;
+        }
+        
+        Entry pending;
+        while ((pending = PENDING.poll()) != null) {
+            pending.cancel();
+        }
+        for (List<Entry> bucket : WHEEL) {
+            for (Entry entry : bucket) {
+                entry.cancel();
+            }
+            bucket.clear();
+        }
+    }
+    
+    private static synchronized void start() {
+        if (engineTask == null || engineTask.isCancelled()) {
+            engineTask = MenuScheduler.runGlobalTimer(DynamicItemEngine::tick, 1L, 1L);
+        }
+    }
+    
+    /**
+     * Cancels the task of the engine if no entry is left. A concurrent registration
+     * either sees the task cancelled and starts it again, or keeps it running.
+     *
+     * @return {@code true} if the task was cancelled, {@code false} otherwise
+     */
+    private static synchronized boolean stopIfIdle() {
+        if (ENTRIES.get() != 0 || ! PENDING.isEmpty()) return false;
+        
+        if (engineTask != null) {
+            engineTask.cancel();
+            engineTask = null;
+        }
+        // Only cancelled entries are left in the wheel
+        for (List<Entry> bucket : WHEEL) {
+            bucket.clear();
+        }
+        return true;
+    }
+    
+    private static void tick() {
+        if (ENTRIES.get() == 0 && stopIfIdle()) return;
+        
+        long tick = ++currentTick;
+        
+        Entry pending;
+        while ((pending = PENDING.poll()) != null) {
+            schedule(pending, tick);
+        }
+        
+        List<Entry> bucket = WHEEL[(int) (tick & WHEEL_MASK)];
+        if (bucket.isEmpty()) return;
+        
+        Map<Menu, List<Entry>> due = null;
+        for (int i = bucket.size() - 1; i >= 0; i--) {
+            Entry entry = bucket.get(i);
+            if (entry.cancelled) {
+                removeAt(bucket, i);
+                continue;
+            }
+            if (entry.nextDue > tick) continue;
+            
+            removeAt(bucket, i);
+            if (due == null) due = new LinkedHashMap<>();
+            due.computeIfAbsent(entry.menu, menu -> new ArrayList<>()).add(entry);
+            schedule(entry, tick + entry.intervalTicks);
+        }
+        
+        if (due == null) return;
+        for (List<Entry> entries : due.values()) {
+            if (MenuScheduler.isFolia()) {
+                MenuScheduler.run(entries.get(0).viewer, () -> apply(entries));
+            } else {
+                apply(entries);
+            }
+        }
+    }
+    
+    private static void schedule(Entry entry, long dueTick) {
+        entry.nextDue = dueTick;
+        WHEEL[(int) (dueTick & WHEEL_MASK)].add(entry);
+    }
+    
+    private static void removeAt(List<Entry> bucket, int index) {
+        int last = bucket.size() - 1;
+        bucket.set(index, bucket.get(last));
+        bucket.remove(last);
+    }
+    
+    private static void apply(List<Entry> entries) {
+        Inventory inventory = null;
+        ItemBuilder[] items = null;
+        boolean[] written = null;
+        for (Entry entry : entries) {
+            if (entry.cancelled) continue;
+            Inventory top = getViewedInventory(entry.viewer, entry.menu);
+            if (top == null) {
+                entry.cancel();
+                continue;
+            }
+            
+            if (inventory == null) {
+                inventory = top;
+                items = new ItemBuilder[top.getSize()];
+                written = new boolean[top.getSize()];
+            }
+            if (entry.slot < 0 || entry.slot >= written.length || written[entry.slot]) continue;
+            
+            try {
+                items[entry.slot] = entry.itemSupplier.get();
+                written[entry.slot] = true;
+            } catch (Exception e) {
+                MenuLib.getPlugin().getSLF4JLogger().error("An error occurred while refreshing a dynamic item in menu {}: {}", entry.menu.getName(), e.getMessage(), e);
+            }
+        }
+        
+        if (inventory == null) return;
+        for (int slot = 0; slot < written.length; slot++) {
+            if (written[slot]) {
+                inventory.setItem(slot, items[slot]);
+            }
+        }
+    }
+    
+    private static Inventory getViewedInventory(Player viewer, Menu menu) {
+        if (! viewer.isOnline()) return null;
+        Inventory top = viewer.getOpenInventory().getTopInventory();
+        return top.getHolder(false) == menu ? top : null;
+    }
+    
+    private static final class Entry implements MenuTask {
+        private final Player viewer;
+        private final Menu menu;
+        private final int slot;
+        private final Supplier<ItemBuilder> itemSupplier;
+        private final long intervalTicks;
+        private long nextDue;
+        private volatile boolean cancelled;
+        
+        private Entry(Player viewer, Menu menu, int slot, Supplier<ItemBuilder> itemSupplier, long intervalTicks) {
+            this.viewer = viewer;
+            this.menu = menu;
+            this.slot = slot;
+            this.itemSupplier = itemSupplier;
+            this.intervalTicks = intervalTicks;
+        }
+        
+        @Override
+        public synchronized void cancel() {
+            if (! cancelled) {
+                cancelled = true;
+                ENTRIES.decrementAndGet();
+            }
+        }
+        
+        @Override
+        public boolean isCancelled() {
+            return cancelled;
+        }
+    }
+}
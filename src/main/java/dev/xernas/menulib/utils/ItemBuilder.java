@@ -3,18 +3,25 @@ package dev.xernas.menulib.utils;
 import dev.xernas.menulib.Menu;
 import dev.xernas.menulib.MenuLib;
 import dev.xernas.menulib.PaginatedMenu;
+import io.papermc.paper.datacomponent.DataComponentBuilder;
 import io.papermc.paper.datacomponent.DataComponentType;
 import io.papermc.paper.datacomponent.DataComponentTypes;
 import io.papermc.paper.datacomponent.item.TooltipDisplay;
+import net.kyori.adventure.text.Component;
 import org.bukkit.Material;
+import org.bukkit.enchantments.Enchantment;
 import org.bukkit.event.inventory.InventoryClickEvent;
+import org.bukkit.inventory.ItemFlag;
 import org.bukkit.inventory.ItemStack;
 import org.bukkit.inventory.meta.ItemMeta;
 import org.bukkit.persistence.PersistentDataContainer;
 import org.bukkit.persistence.PersistentDataType;
 import org.jetbrains.annotations.Nullable;
 
+import java.util.List;
+import java.util.Map;
 import java.util.function.Consumer;
+import java.util.function.Predicate;
 
 /**
  * The {@code ItemBuilder} class is a utility for creating and customizing {@link ItemStack} objects
@@ -25,6 +32,11 @@ public class ItemBuilder extends ItemStack {
     private final Menu itemMenu;
     private boolean backButton;
     private ItemMeta meta;
+    private Consumer<InventoryClickEvent> clickEvent;
+    private boolean frozen;
+    private boolean metaLoaded;
+    private boolean fingerprintValid;
+    private long similarityFingerprint;
     
     /**
      * Constructs an {@code ItemBuilder} with the specified {@link Menu} and {@link Material}.
@@ -135,6 +147,9 @@ public class ItemBuilder extends ItemStack {
     public ItemBuilder(Menu itemMenu, ItemStack item, Consumer<ItemMeta> itemMeta) {
         super(item);
         this.itemMenu = itemMenu;
+        if (item instanceof ItemBuilder builder) {
+            this.clickEvent = builder.clickEvent;
+        }
         meta = item.getItemMeta();
         if (itemMeta != null) {
             itemMeta.accept(meta);
@@ -159,6 +174,9 @@ public class ItemBuilder extends ItemStack {
         super(item);
         this.itemMenu = itemMenu;
         this.backButton = isBackButton;
+        if (item instanceof ItemBuilder builder) {
+            this.clickEvent = builder.clickEvent;
+        }
         meta = getItemMeta();
         if (itemMeta != null) {
             itemMeta.accept(meta);
@@ -178,16 +196,19 @@ public class ItemBuilder extends ItemStack {
      * when creating and customizing items.
      */
     public ItemBuilder setItemId(String itemId) {
-        PersistentDataContainer dataContainer = meta.getPersistentDataContainer();
+        checkMutable();
+        ItemMeta itemMeta = loadedMeta();
+        PersistentDataContainer dataContainer = itemMeta.getPersistentDataContainer();
         dataContainer.set(MenuLib.getItemIdKey(), PersistentDataType.STRING, itemId.toLowerCase());
-        setItemMeta(meta);
+        setItemMeta(itemMeta);
         return this;
     }
     
     /**
      * Sets the click event handler for the item. This method associates the specified
      * {@link Consumer} with the item to define a custom behavior when the item is clicked
-     * in the menu.
+     * in the menu. The handler is bound to the slot the item is placed in when the menu is opened,
+     * replacing the handlers of the previous opening.
      *
      * @param e A {@link Consumer} of {@link InventoryClickEvent} that specifies the action
      *          to be performed when the item is clicked.
@@ -195,29 +216,26 @@ public class ItemBuilder extends ItemStack {
      * for further customization of the item.
      */
     public ItemBuilder setOnClick(Consumer<InventoryClickEvent> e) {
-        try {
-            MenuLib.setItemClickEvent(itemMenu, this, e);
-        } catch (Exception ex) {
-            MenuLib.getPlugin().getSLF4JLogger().error("An error occurred while setting the click event: {}", ex.getMessage(), ex);
-        }
+        checkMutable();
+        this.clickEvent = e;
         return this;
     }
     
     /**
      * Sets the item to act as a close button. When the item is clicked, it closes
-     * the inventory of the menu owner.
+     * the inventory of the player who clicked it.
      *
      * @return The current instance of {@link ItemBuilder}, allowing method chaining
      * for further customization of the item.
      */
     public ItemBuilder setCloseButton() {
         try {
-            Consumer<InventoryClickEvent> clickEventConsumer = inventoryClickEvent -> itemMenu.getOwner().closeInventory();
+            Consumer<InventoryClickEvent> clickEventConsumer = inventoryClickEvent -> inventoryClickEvent.getWhoClicked().closeInventory();
             setOnClick(clickEventConsumer);
             return this;
         } catch (Exception e) {
             MenuLib.getPlugin().getSLF4JLogger().error("An error occurred while setting the close button: {}", e.getMessage(), e);
-            itemMenu.getOwner().closeInventory();
+            closeOwnerInventory();
         }
         return this;
     }
@@ -225,7 +243,7 @@ public class ItemBuilder extends ItemStack {
     /**
      * Sets the item to act as a button that navigates to the next page in a paginated menu.
      * When the item is clicked, the page within the associated {@link PaginatedMenu} is incremented,
-     * provided the current page is not the last. The updated menu is then reopened for the user.
+     * provided the current page is not the last. The new page is then displayed in place in the open menu.
      *
      * @return The current instance of {@link ItemBuilder}, enabling method chaining
      * for additional configurations of the item.
@@ -234,15 +252,14 @@ public class ItemBuilder extends ItemStack {
         try {
             Consumer<InventoryClickEvent> clickEventConsumer = inventoryClickEvent -> {
                 if (itemMenu instanceof PaginatedMenu menu) {
-                    menu.setPage(menu.isLastPage() ? menu.getPage() : menu.getPage() + 1);
-                    menu.open();
+                    menu.switchPage(menu.isLastPage() ? menu.getPage() : menu.getPage() + 1);
                 }
             };
             setOnClick(clickEventConsumer);
             return this;
         } catch (Exception e) {
             MenuLib.getPlugin().getSLF4JLogger().error("An error occurred while setting the next page button: {}", e.getMessage(), e);
-            itemMenu.getOwner().closeInventory();
+            closeOwnerInventory();
         }
         return this;
     }
@@ -250,7 +267,7 @@ public class ItemBuilder extends ItemStack {
     /**
      * Sets the item to act as a button that navigates to the previous page in a paginated menu.
      * When the item is clicked, the page within the associated {@link PaginatedMenu} is decremented,
-     * provided the current page is not the first. The updated menu is then reopened for the user.
+     * provided the current page is not the first. The new page is then displayed in place in the open menu.
      *
      * @return The current instance of {@link ItemBuilder}, enabling method chaining
      * for additional configurations of the item.
@@ -259,14 +276,13 @@ public class ItemBuilder extends ItemStack {
         try {
             Consumer<InventoryClickEvent> clickEventConsumer = inventoryClickEvent -> {
                 if (itemMenu instanceof PaginatedMenu menu) {
-                    menu.setPage(menu.getPage() == 0 ? 0 : menu.getPage() - 1);
-                    menu.open();
+                    menu.switchPage(menu.getPage() == 0 ? 0 : menu.getPage() - 1);
                 }
             };
             setOnClick(clickEventConsumer);
             return this;
         } catch (Exception e) {
-            itemMenu.getOwner().closeInventory();
+            closeOwnerInventory();
             MenuLib.getPlugin().getSLF4JLogger().error("An error occurred while setting the previous page button: {}", e.getMessage(), e);
         }
         return this;
@@ -282,6 +298,7 @@ public class ItemBuilder extends ItemStack {
      */
     @SuppressWarnings("UnstableApiUsage")
     public ItemBuilder hide(DataComponentType... typesToHide) {
+        checkMutable();
         if (this.hasData(DataComponentTypes.TOOLTIP_DISPLAY) && this.getData(DataComponentTypes.TOOLTIP_DISPLAY).hideTooltip()) {
             return this;
         }
@@ -303,6 +320,7 @@ public class ItemBuilder extends ItemStack {
      */
     @SuppressWarnings("UnstableApiUsage")
     public ItemBuilder hideTooltip(boolean hideTooltip) {
+        checkMutable();
         TooltipDisplay tooltipDisplay = TooltipDisplay.tooltipDisplay().hideTooltip(hideTooltip).build();
         this.setData(DataComponentTypes.TOOLTIP_DISPLAY, tooltipDisplay);
         
@@ -318,16 +336,353 @@ public class ItemBuilder extends ItemStack {
      */
     @Override
     public final boolean setItemMeta(@Nullable ItemMeta itemMeta) {
+        changed();
         try {
+            boolean applied = super.setItemMeta(itemMeta);
             meta = itemMeta;
-            return super.setItemMeta(itemMeta);
+            metaLoaded = true;
+            return applied;
         } catch (Exception e) {
             MenuLib.getPlugin().getSLF4JLogger().error("An error occurred while setting the item meta: {}", e.getMessage(), e);
-            itemMenu.getOwner().closeInventory();
+            closeOwnerInventory();
         }
         return false;
     }
     
+    /**
+     * Sets the amount of the item.
+     *
+     * @param amount The new amount of the item
+     * @throws UnsupportedOperationException if the item is shared, see {@link #isFrozen()}
+     */
+    @Override
+    public void setAmount(int amount) {
+        checkMutable();
+        super.setAmount(amount);
+    }
+    
+    /**
+     * Sets the type of the item.
+     *
+     * @param type The new {@link Material} of the item
+     * @throws UnsupportedOperationException if the item is shared, see {@link #isFrozen()}
+     */
+    @Override
+    @SuppressWarnings("deprecation")
+    public void setType(Material type) {
+        changed();
+        super.setType(type);
+    }
+    
+    /**
+     * Sets the durability of the item.
+     *
+     * @param durability The new durability of the item
+     * @throws UnsupportedOperationException if the item is shared, see {@link #isFrozen()}
+     */
+    @Override
+    @SuppressWarnings("deprecation")
+    public void setDurability(short durability) {
+        changed();
+        super.setDurability(durability);
+    }
+    
+    /**
+     * Edits the meta of the item.
+     *
+     * @param consumer The {@link Consumer} editing the {@link ItemMeta}
+     * @return {@code true} if the edited meta was applied, {@code false} otherwise
+     * @throws UnsupportedOperationException if the item is shared, see {@link #isFrozen()}
+     */
+    @Override
+    public boolean editMeta(Consumer<? super ItemMeta> consumer) {
+        changed();
+        return super.editMeta(consumer);
+    }
+    
+    /**
+     * Edits the meta of the item if it is of the given type.
+     *
+     * @param metaClass The type of {@link ItemMeta} to edit
+     * @param consumer  The {@link Consumer} editing the meta
+     * @param <M>       The type of meta
+     * @return {@code true} if the edited meta was applied, {@code false} otherwise
+     * @throws UnsupportedOperationException if the item is shared, see {@link #isFrozen()}
+     */
+    @Override
+    public <M extends ItemMeta> boolean editMeta(Class<M> metaClass, Consumer<? super M> consumer) {
+        changed();
+        return super.editMeta(metaClass, consumer);
+    }
+    
+    /**
+     * Edits the persistent data of the item.
+     *
+     * @param consumer The {@link Consumer} editing the {@link PersistentDataContainer}
+     * @return {@code true} if the edited data was applied, {@code false} otherwise
+     * @throws UnsupportedOperationException if the item is shared, see {@link #isFrozen()}
+     */
+    @Override
+    public boolean editPersistentDataContainer(Consumer<PersistentDataContainer> consumer) {
+        changed();
+        return super.editPersistentDataContainer(consumer);
+    }
+    
+    /**
+     * Sets the lore of the item.
+     *
+     * @param lore The new lore, or {@code null} to remove it
+     * @throws UnsupportedOperationException if the item is shared, see {@link #isFrozen()}
+     */
+    @Override
+    public void lore(@Nullable List<? extends Component> lore) {
+        changed();
+        super.lore(lore);
+    }
+    
+    /**
+     * Sets the legacy lore of the item.
+     *
+     * @param lore The new lore, or {@code null} to remove it
+     * @throws UnsupportedOperationException if the item is shared, see {@link #isFrozen()}
+     */
+    @Override
+    @SuppressWarnings("deprecation")
+    public void setLore(@Nullable List<String> lore) {
+        changed();
+        super.setLore(lore);
+    }
+    
+    /**
+     * Adds item flags to the item.
+     *
+     * @param itemFlags The {@link ItemFlag}s to add
+     * @throws UnsupportedOperationException if the item is shared, see {@link #isFrozen()}
+     */
+    @Override
+    public void addItemFlags(ItemFlag... itemFlags) {
+        changed();
+        super.addItemFlags(itemFlags);
+    }
+    
+    /**
+     * Removes item flags from the item.
+     *
+     * @param itemFlags The {@link ItemFlag}s to remove
+     * @throws UnsupportedOperationException if the item is shared, see {@link #isFrozen()}
+     */
+    @Override
+    public void removeItemFlags(ItemFlag... itemFlags) {
+        changed();
+        super.removeItemFlags(itemFlags);
+    }
+    
+    /**
+     * Adds an enchantment to the item, checking that it can be applied.
+     *
+     * @param ench  The {@link Enchantment} to add
+     * @param level The level of the enchantment
+     * @throws UnsupportedOperationException if the item is shared, see {@link #isFrozen()}
+     */
+    @Override
+    public void addEnchantment(Enchantment ench, int level) {
+        changed();
+        super.addEnchantment(ench, level);
+    }
+    
+    /**
+     * Adds enchantments to the item, checking that they can be applied.
+     *
+     * @param enchantments The enchantments to add, with their levels
+     * @throws UnsupportedOperationException if the item is shared, see {@link #isFrozen()}
+     */
+    @Override
+    public void addEnchantments(Map<Enchantment, Integer> enchantments) {
+        changed();
+        super.addEnchantments(enchantments);
+    }
+    
+    /**
+     * Adds an enchantment to the item without any check.
+     *
+     * @param ench  The {@link Enchantment} to add
+     * @param level The level of the enchantment
+     * @throws UnsupportedOperationException if the item is shared, see {@link #isFrozen()}
+     */
+    @Override
+    public void addUnsafeEnchantment(Enchantment ench, int level) {
+        changed();
+        super.addUnsafeEnchantment(ench, level);
+    }
+    
+    /**
+     * Adds enchantments to the item without any check.
+     *
+     * @param enchantments The enchantments to add, with their levels
+     * @throws UnsupportedOperationException if the item is shared, see {@link #isFrozen()}
+     */
+    @Override
+    public void addUnsafeEnchantments(Map<Enchantment, Integer> enchantments) {
+        changed();
+        super.addUnsafeEnchantments(enchantments);
+    }
+    
+    /**
+     * Removes an enchantment from the item.
+     *
+     * @param ench The {@link Enchantment} to remove
+     * @return The previous level of the enchantment, or 0 if the item did not have it
+     * @throws UnsupportedOperationException if the item is shared, see {@link #isFrozen()}
+     */
+    @Override
+    public int removeEnchantment(Enchantment ench) {
+        changed();
+        return super.removeEnchantment(ench);
+    }
+    
+    /**
+     * Removes every enchantment from the item.
+     *
+     * @throws UnsupportedOperationException if the item is shared, see {@link #isFrozen()}
+     */
+    @Override
+    public void removeEnchantments() {
+        changed();
+        super.removeEnchantments();
+    }
+    
+    /**
+     * Sets a valued data component of the item from a builder.
+     *
+     * @param type         The {@link DataComponentType} to set
+     * @param valueBuilder The builder of the value
+     * @param <T>          The type of the value
+     * @throws UnsupportedOperationException if the item is shared, see {@link #isFrozen()}
+     */
+    @Override
+    @SuppressWarnings("UnstableApiUsage")
+    public <T> void setData(DataComponentType.Valued<T> type, DataComponentBuilder<T> valueBuilder) {
+        changed();
+        super.setData(type, valueBuilder);
+    }
+    
+    /**
+     * Sets a valued data component of the item.
+     *
+     * @param type  The {@link DataComponentType} to set
+     * @param value The value of the component
+     * @param <T>   The type of the value
+     * @throws UnsupportedOperationException if the item is shared, see {@link #isFrozen()}
+     */
+    @Override
+    @SuppressWarnings("UnstableApiUsage")
+    public <T> void setData(DataComponentType.Valued<T> type, T value) {
+        changed();
+        super.setData(type, value);
+    }
+    
+    /**
+     * Sets a non-valued data component of the item.
+     *
+     * @param type The {@link DataComponentType} to set
+     * @throws UnsupportedOperationException if the item is shared, see {@link #isFrozen()}
+     */
+    @Override
+    @SuppressWarnings("UnstableApiUsage")
+    public void setData(DataComponentType.NonValued type) {
+        changed();
+        super.setData(type);
+    }
+    
+    /**
+     * Removes a data component from the item.
+     *
+     * @param type The {@link DataComponentType} to remove
+     * @throws UnsupportedOperationException if the item is shared, see {@link #isFrozen()}
+     */
+    @Override
+    @SuppressWarnings("UnstableApiUsage")
+    public void unsetData(DataComponentType type) {
+        changed();
+        super.unsetData(type);
+    }
+    
+    /**
+     * Resets a data component of the item to the default value of its type.
+     *
+     * @param type The {@link DataComponentType} to reset
+     * @throws UnsupportedOperationException if the item is shared, see {@link #isFrozen()}
+     */
+    @Override
+    @SuppressWarnings("UnstableApiUsage")
+    public void resetData(DataComponentType type) {
+        changed();
+        super.resetData(type);
+    }
+    
+    /**
+     * Copies data components from another item.
+     *
+     * @param source The {@link ItemStack} to copy the components from
+     * @param filter The filter of the copied {@link DataComponentType}s
+     * @throws UnsupportedOperationException if the item is shared, see {@link #isFrozen()}
+     */
+    @Override
+    @SuppressWarnings("UnstableApiUsage")
+    public void copyDataFrom(ItemStack source, Predicate<DataComponentType> filter) {
+        changed();
+        super.copyDataFrom(source, filter);
+    }
+    
+    /**
+     * Checks if the item is frozen. A frozen item is shared between slots, menus and players,
+     * by {@link Decorations}, and every method modifying it throws an {@link UnsupportedOperationException}.
+     * To customize it, modify a copy made with {@link #ItemBuilder(Menu, ItemStack)}, which is never frozen.
+     *
+     * @return {@code true} if the item is frozen, {@code false} otherwise
+     */
+    public boolean isFrozen() {
+        return frozen;
+    }
+    
+    /**
+     * Freezes the item so that it can be shared safely. This cannot be undone.
+     *
+     * @return The current instance of {@link ItemBuilder}
+     */
+    ItemBuilder freeze() {
+        // Shared items are read from several threads, so nothing is left to compute lazily
+        getSimilarityFingerprint();
+        frozen = true;
+        return this;
+    }
+    
+    private void closeOwnerInventory() {
+        if (itemMenu != null && itemMenu.getOwner() != null) {
+            itemMenu.getOwner().closeInventory();
+        }
+    }
+    
+    private void checkMutable() {
+        if (frozen) {
+            throw new UnsupportedOperationException("This item is shared and cannot be modified, copy it with new ItemBuilder(menu, item) first");
+        }
+    }
+    
+    private void changed() {
+        checkMutable();
+        metaLoaded = false;
+        fingerprintValid = false;
+    }
+    
+    private ItemMeta loadedMeta() {
+        if (! metaLoaded) {
+            meta = getItemMeta();
+            metaLoaded = true;
+        }
+        return meta;
+    }
+    
     /**
      * Check if the item is a back button.
      *
@@ -336,4 +691,54 @@ public class ItemBuilder extends ItemStack {
     public boolean isBackButton() {
         return backButton;
     }
+    
+    /**
+     * Retrieves the unique identifier of the item set with {@link #setItemId(String)},
+     * without copying the item's {@link ItemMeta}.
+     *
+     * @return The item identifier, or {@code null} if the item has none
+     */
+    @Nullable
+    public String getItemId() {
+        ItemMeta itemMeta = loadedMeta();
+        if (itemMeta == null) return null;
+        return itemMeta.getPersistentDataContainer().get(MenuLib.getItemIdKey(), PersistentDataType.STRING);
+    }
+    
+    /**
+     * Retrieves a 64-bit fingerprint of the display name, the lore, the persistent data and the enchantments of the item,
+     * computed on first use after any modification of the item.
+     * Two items with different fingerprints are never similar, see {@link ItemUtils#isSimilar(ItemStack, ItemStack)}.
+     *
+     * @return The similarity fingerprint of the item
+     */
+    public long getSimilarityFingerprint() {
+        if (! fingerprintValid) {
+            similarityFingerprint = ItemUtils.similarityFingerprint(loadedMeta());
+            fingerprintValid = true;
+        }
+        return similarityFingerprint;
+    }
+    
+    /**
+     * Retrieves the meta of the item, copied only once after any modification of the item.
+     * The returned meta must not be modified.
+     *
+     * @return The {@link ItemMeta} of the item, or {@code null} if the item has none
+     */
+    @Nullable
+    ItemMeta peekItemMeta() {
+        return loadedMeta();
+    }
+    
+    /**
+     * Retrieves the click event handler attached to this item through {@link #setOnClick(Consumer)}.
+     * Copies of this item made with the {@code ItemBuilder} constructors keep the same handler.
+     *
+     * @return The {@link Consumer} handling {@link InventoryClickEvent}s for this item, or {@code null} if none is set
+     */
+    @Nullable
+    public Consumer<InventoryClickEvent> getClickEvent() {
+        return clickEvent;
+    }
 }
\ No newline at end of file
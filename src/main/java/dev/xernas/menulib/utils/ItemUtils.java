@@ -1,16 +1,15 @@
 package dev.xernas.menulib.utils;
 
-import com.destroystokyo.paper.profile.PlayerProfile;
 import dev.xernas.menulib.MenuLib;
+import dev.xernas.menulib.skull.SkullService;
 import io.papermc.paper.datacomponent.DataComponentTypes;
 import net.kyori.adventure.text.Component;
-import org.bukkit.Bukkit;
 import org.bukkit.Material;
 import org.bukkit.inventory.ItemStack;
 import org.bukkit.inventory.meta.ItemMeta;
-import org.bukkit.inventory.meta.SkullMeta;
 import org.bukkit.persistence.PersistentDataContainer;
 import org.bukkit.persistence.PersistentDataType;
+import org.jetbrains.annotations.Nullable;
 
 import java.util.Objects;
 import java.util.UUID;
@@ -54,21 +53,30 @@ public class ItemUtils {
         return false;
     }
     
+    /**
+     * Retrieves the item ID stored in the {@link PersistentDataContainer} of the provided {@link ItemStack}.
+     *
+     * @param item The {@link ItemStack} whose item ID is to be retrieved, may be {@code null}.
+     * @return The item ID of the item, or {@code null} if the item has none.
+     */
+    @Nullable
+    public static String getItemId(@Nullable ItemStack item) {
+        if (item == null) return null;
+        if (item instanceof ItemBuilder itemBuilder) return itemBuilder.getItemId();
+        if (! item.hasItemMeta()) return null;
+        return item.getItemMeta().getPersistentDataContainer().get(MenuLib.getItemIdKey(), PersistentDataType.STRING);
+    }
+    
     /**
      * Creates a player skull item for the specified player UUID.
+     * The skull is textured if the texture of the player is cached by the {@link SkullService},
+     * otherwise the texture is resolved in the background, see {@link SkullService#getSkull(UUID)}.
      *
      * @param playerUUID the UUID of the player whose skull is to be created
      * @return an {@link ItemStack} representing the player's skull
      */
     public static ItemStack getPlayerSkull(UUID playerUUID) {
-        ItemStack skull = new ItemStack(Material.PLAYER_HEAD);
-        SkullMeta skullMeta = (SkullMeta) skull.getItemMeta();
-        if (skullMeta != null) {
-            PlayerProfile profile = Bukkit.createProfile(playerUUID);
-            skullMeta.setPlayerProfile(profile);
-            skull.setItemMeta(skullMeta);
-        }
-        return skull;
+        return SkullService.getSkull(playerUUID);
     }
     
     /**
@@ -76,6 +84,11 @@ public class ItemUtils {
      * Deux items sont considérés similaires s'ils ont le même type, la même quantité,
      * et les mêmes métadonnées (nom, lore, etc.). Permet de ne pas vérifier le component TooltipDisplay.
      *
+     * <p>
+     * Deux {@link ItemBuilder} dont les {@link ItemBuilder#getSimilarityFingerprint() empreintes} diffèrent
+     * sont rejetés sans comparer leurs métadonnées, qui ne sont jamais copiées. Les métadonnées des autres items
+     * ne sont copiées qu'une seule fois par item.
+     *
      * @param item1 le premier item à comparer
      * @param item2 le second item à comparer
      * @return true si les items sont similaires, false sinon
@@ -83,13 +96,23 @@ public class ItemUtils {
     @SuppressWarnings("UnstableApiUsage")
     public static boolean isSimilar(ItemStack item1, ItemStack item2) {
         if (item1 == null || item2 == null) return false;
+        if (item1 == item2) return true;
         if (item1.getType() != item2.getType()) return false;
         if (item1.getAmount() != item2.getAmount()) return false;
-        if (item1.hasItemMeta() != item2.hasItemMeta()) return false;
-        if (item1.hasItemMeta() && item2.hasItemMeta()) {
-            if (! Objects.equals(item1.getItemMeta().displayName(), item2.getItemMeta().displayName())) return false;
-            if (! Objects.equals(item1.getItemMeta().lore(), item2.getItemMeta().lore())) return false;
-            if (! Objects.equals(item1.getItemMeta().getPersistentDataContainer(), item2.getItemMeta().getPersistentDataContainer())) {
+        if (item1 instanceof ItemBuilder builder1 && item2 instanceof ItemBuilder builder2
+                && builder1.getSimilarityFingerprint() != builder2.getSimilarityFingerprint()) {
+            return false;
+        }
+        
+        boolean hasItemMeta = item1.hasItemMeta();
+        if (hasItemMeta != item2.hasItemMeta()) return false;
+        if (hasItemMeta) {
+            ItemMeta meta1 = getItemMeta(item1);
+            ItemMeta meta2 = getItemMeta(item2);
+            if (meta1 == null || meta2 == null) return meta1 == meta2;
+            if (! Objects.equals(meta1.displayName(), meta2.displayName())) return false;
+            if (! Objects.equals(meta1.lore(), meta2.lore())) return false;
+            if (! Objects.equals(meta1.getPersistentDataContainer(), meta2.getPersistentDataContainer())) {
                 return false;
             }
             if (! Objects.equals(item1.getData(DataComponentTypes.ENCHANTMENTS), item2.getData(DataComponentTypes.ENCHANTMENTS))) {
@@ -99,4 +122,28 @@ public class ItemUtils {
         
         return true;
     }
+    
+    /**
+     * Calcule l'empreinte de similarité de métadonnées : une valeur de 64 bits combinant le nom,
+     * la lore, le {@link PersistentDataContainer} et les enchantements. Des métadonnées similaires ont toujours la même empreinte.
+     *
+     * @param meta les métadonnées, peut être {@code null}
+     * @return l'empreinte des métadonnées, 0 si elles sont {@code null}
+     */
+    static long similarityFingerprint(@Nullable ItemMeta meta) {
+        if (meta == null) return 0L;
+        long fingerprint = Objects.hashCode(meta.displayName());
+        fingerprint = fingerprint * 0x9E3779B97F4A7C15L + Objects.hashCode(meta.lore());
+        fingerprint = fingerprint * 0x9E3779B97F4A7C15L + meta.getPersistentDataContainer().hashCode();
+        fingerprint = fingerprint * 0x9E3779B97F4A7C15L + meta.getEnchants().hashCode();
+        return fingerprint ^ (fingerprint >>> 29);
+    }
+    
+    @Nullable
+    private static ItemMeta getItemMeta(ItemStack item) {
+        if (item instanceof ItemBuilder builder && builder.peekItemMeta() != null) {
+            return builder.peekItemMeta();
+        }
+        return item.getItemMeta();
+    }
 }
\ No newline at end of file
@@ -0,0 +1,183 @@
+package dev.xernas.menulib.utils;
+
+import dev.xernas.menulib.MenuLib;
+import io.papermc.paper.threadedregions.scheduler.ScheduledTask;
+import org.bukkit.Bukkit;
+import org.bukkit.entity.Player;
+import org.bukkit.scheduler.BukkitTask;
+import org.jetbrains.annotations.Nullable;
+
+/**
+ * Schedules menu work on the thread allowed to touch it.
+ * <p>
+ * On Folia, where each region is ticked by its own thread, tasks tied to a player run on the
+ * player's entity scheduler and global tasks run on the global region scheduler.
+ * On Paper, every task falls back to the Bukkit scheduler and runs on the main thread.
+ * Folia is detected once at runtime.
+ */
+public class MenuScheduler {
+    
+    private static final boolean FOLIA = detectFolia();
+    
+    /**
+     * Checks if the server runs Folia.
+     *
+     * @return {@code true} on Folia, {@code false} otherwise
+     */
+    public static boolean isFolia() {
+        return FOLIA;
+    }
+    
+    /**
+     * Checks if the current thread is allowed to touch the given player and its open inventory.
+     *
+     * @param player the player to check
+     * @return {@code true} if the current thread owns the player, {@code false} otherwise
+     */
+    public static boolean isOwnedByCurrentThread(Player player) {
+        return FOLIA ? Bukkit.isOwnedByCurrentRegion(player) : Bukkit.isPrimaryThread();
+    }
+    
+    /**
+     * Runs a task on the next tick of the thread owning the given player.
+     *
+     * @param player the player the task works on
+     * @param task   the task to run
+     * @return the scheduled {@link MenuTask}
+     */
+    public static MenuTask run(Player player, Runnable task) {
+        if (FOLIA) {
+            return wrap(player.getScheduler().run(MenuLib.getPlugin(), scheduledTask -> task.run(), null));
+        }
+        return wrap(Bukkit.getScheduler().runTask(MenuLib.getPlugin(), task));
+    }
+    
+    /**
+     * Runs a task after a delay on the thread owning the given player.
+     * The task is dropped if the player leaves before it runs.
+     *
+     * @param player     the player the task works on
+     * @param task       the task to run
+     * @param delayTicks the delay in ticks, at least 1
+     * @return the scheduled {@link MenuTask}
+     */
+    public static MenuTask runLater(Player player, Runnable task, long delayTicks) {
+        if (FOLIA) {
+            return wrap(player.getScheduler().runDelayed(MenuLib.getPlugin(), scheduledTask -> task.run(), null, Math.max(1L, delayTicks)));
+        }
+        return wrap(Bukkit.getScheduler().runTaskLater(MenuLib.getPlugin(), task, delayTicks));
+    }
+    
+    /**
+     * Runs a task periodically on the thread owning the given player.
+     * The task stops if the player leaves.
+     *
+     * @param player      the player the task works on
+     * @param task        the task to run
+     * @param delayTicks  the delay before the first run in ticks
+     * @param periodTicks the period between runs in ticks, at least 1
+     * @return the scheduled {@link MenuTask}
+     */
+    public static MenuTask runTimer(Player player, Runnable task, long delayTicks, long periodTicks) {
+        if (FOLIA) {
+            return wrap(player.getScheduler().runAtFixedRate(MenuLib.getPlugin(), scheduledTask -> task.run(), null, Math.max(1L, delayTicks), Math.max(1L, periodTicks)));
+        }
+        return wrap(Bukkit.getScheduler().runTaskTimer(MenuLib.getPlugin(), task, delayTicks, Math.max(1L, periodTicks)));
+    }
+    
+    /**
+     * Runs a task on the next tick of the global region, for work that is not tied to a player,
+     * such as dispatching console commands.
+     *
+     * @param task the task to run
+     * @return the scheduled {@link MenuTask}
+     */
+    public static MenuTask runGlobal(Runnable task) {
+        if (FOLIA) {
+            return wrap(Bukkit.getGlobalRegionScheduler().run(MenuLib.getPlugin(), scheduledTask -> task.run()));
+        }
+        return wrap(Bukkit.getScheduler().runTask(MenuLib.getPlugin(), task));
+    }
+    
+    /**
+     * Runs a task periodically on the global region, for work that is not tied to a player.
+     *
+     * @param task        the task to run
+     * @param delayTicks  the delay before the first run in ticks
+     * @param periodTicks the period between runs in ticks, at least 1
+     * @return the scheduled {@link MenuTask}
+     */
+    public static MenuTask runGlobalTimer(Runnable task, long delayTicks, long periodTicks) {
+        if (FOLIA) {
+            return wrap(Bukkit.getGlobalRegionScheduler().runAtFixedRate(MenuLib.getPlugin(), scheduledTask -> task.run(), Math.max(1L, delayTicks), Math.max(1L, periodTicks)));
+        }
+        return wrap(Bukkit.getScheduler().runTaskTimer(MenuLib.getPlugin(), task, delayTicks, Math.max(1L, periodTicks)));
+    }
+    
+    /**
+     * Runs a task off the server threads.
+     *
+     * @param task the task to run
+     * @return the scheduled {@link MenuTask}
+     */
+    public static MenuTask runAsync(Runnable task) {
+        if (FOLIA) {
+            return wrap(Bukkit.getAsyncScheduler().runNow(MenuLib.getPlugin(), scheduledTask -> task.run()));
+        }
+        return wrap(Bukkit.getScheduler().runTaskAsynchronously(MenuLib.getPlugin(), task));
+    }
+    
+    private static MenuTask wrap(@Nullable ScheduledTask task) {
+        if (task == null) {
+            // The entity was removed before the task could be scheduled
+            return CancelledTask.INSTANCE;
+        }
+        return new MenuTask() {
+            @Override
+            public void cancel() {
+                task.cancel();
+            }
+            
+            @Override
+            public boolean isCancelled() {
+                return task.isCancelled();
+            }
+        };
+    }
+    
+    private static MenuTask wrap(BukkitTask task) {
+        return new MenuTask() {
+            @Override
+            public void cancel() {
+                task.cancel();
+            }
+            
+            @Override
+            public boolean isCancelled() {
+                return task.isCancelled();
+            }
+        };
+    }
+    
+    private static boolean detectFolia() {
+        try {
+            Class.forName("io.papermc.paper.threadedregions.RegionizedServer");
+            return true;
+        } catch (ClassNotFoundException e) {
+            return false;
+        }
+    }
+    
+    private enum CancelledTask implements MenuTask {
+        INSTANCE;
+        
+        @Override
+        public void cancel() {
+        }
+        
+        @Override
+        public boolean isCancelled() {
+            return true;
+        }
+    }
+}
@@ -0,0 +1,20 @@
+package dev.xernas.menulib.utils;
+
+/**
+ * A handle on a task scheduled through {@link MenuScheduler}, independent of the
+ * scheduler running it on Paper or Folia.
+ */
+public interface MenuTask {
+    
+    /**
+     * Cancels the task. Cancelling a finished or already cancelled task does nothing.
+     */
+    void cancel();
+    
+    /**
+     * Checks if the task was cancelled.
+     *
+     * @return {@code true} if the task was cancelled, {@code false} otherwise
+     */
+    boolean isCancelled();
+}
@@ -26,6 +26,22 @@ public class MenuUtils {
 		return itemBuilder;
 	}
 	
+	/**
+	 * Set an Item to be refreshed periodically while the player views the menu.
+	 * The item is refreshed by the shared {@link DynamicItemEngine}, on the thread owning the player,
+	 * which makes it usable on Folia.
+	 *
+	 * @param player       The Player to whom the menu is opened
+	 * @param menu         The Menu to which the item belongs
+	 * @param slot         Slot of Item to be refreshed
+	 * @param itemSupplier Supplier of Item to be refreshed
+	 * @param periodTicks  Period between two refreshes, in ticks
+	 * @return The MenuTask refreshing the item, cancelled once the player stops viewing the menu
+	 */
+	public static MenuTask scheduleDynamicItem(Player player, Menu menu, int slot, Supplier<ItemBuilder> itemSupplier, long periodTicks) {
+		return DynamicItemEngine.register(player, menu, slot, itemSupplier, periodTicks);
+	}
+	
 	/**
 	 * Set an Item to be refreshed.
 	 *
@@ -34,13 +50,16 @@ public class MenuUtils {
 	 * @param slot         Slot of Item to be refreshed
 	 * @param itemSupplier Supplier of Item to be refreshed
 	 * @return The BukkitRunnable that will refresh the item
+	 * @deprecated A {@link BukkitRunnable} cannot be scheduled on Folia,
+	 * use {@link #scheduleDynamicItem(Player, Menu, int, Supplier, long)} instead.
 	 */
+	@Deprecated
 	public static BukkitRunnable runDynamicItem(Player player, Menu menu, int slot, Supplier<ItemBuilder> itemSupplier) {
 		return new BukkitRunnable() {
 			@Override
 			public void run() {
 				try {
-					if (! menu.getInventory().getHolder().equals(player.getOpenInventory().getTopInventory().getHolder())) {
+					if (player.getOpenInventory().getTopInventory().getHolder(false) != menu) {
 						cancel();
 						return;
 					}
@@ -0,0 +1,247 @@
+package dev.xernas.menulib.utils;
+
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.EnumMap;
+import java.util.List;
+import java.util.Map;
+
+/**
+ * An immutable layout splitting the slots of an inventory into static and dynamic slots.
+ * Static slots hold borders and buttons, dynamic slots hold the paginated items.
+ * <p>
+ * Membership is stored in a 64-bit mask, so {@link #isStatic(int)} and {@link #isDynamic(int)}
+ * are constant time, and the static and dynamic slots are precomputed in ascending order so they
+ * can be iterated without allocation through {@link #getStaticSlot(int)} and {@link #getDynamicSlot(int)}.
+ * <p>
+ * Layouts for the predefined {@link StaticSlots.Type}s are shared and can be retrieved with
+ * {@link #of(InventorySize, StaticSlots.Type)}.
+ */
+public final class SlotLayout {
+    
+    private static final Map<InventorySize, Map<StaticSlots.Type, SlotLayout>> PREDEFINED = new EnumMap<>(InventorySize.class);
+    
+    static {
+        for (InventorySize size : InventorySize.values()) {
+            Map<StaticSlots.Type, SlotLayout> layouts = new EnumMap<>(StaticSlots.Type.class);
+            for (StaticSlots.Type type : StaticSlots.Type.values()) {
+                layouts.put(type, of(size.getSize(), StaticSlots.getStaticSlots(size, type)));
+            }
+            PREDEFINED.put(size, layouts);
+        }
+    }
+    
+    private final int size;
+    private final long staticMask;
+    private final int[] staticSlots;
+    private final int[] dynamicSlots;
+    
+    private SlotLayout(int size, long staticMask) {
+        this.size = size;
+        this.staticMask = staticMask;
+        
+        int staticCount = Long.bitCount(staticMask);
+        this.staticSlots = new int[staticCount];
+        this.dynamicSlots = new int[size - staticCount];
+        int staticIndex = 0;
+        int dynamicIndex = 0;
+        for (int slot = 0; slot < size; slot++) {
+            if ((staticMask & (1L << slot)) != 0) {
+                staticSlots[staticIndex++] = slot;
+            } else {
+                dynamicSlots[dynamicIndex++] = slot;
+            }
+        }
+    }
+    
+    /**
+     * Retrieves the shared layout of a predefined type of static slots.
+     *
+     * @param size the inventory size of the layout
+     * @param type the type of static slots
+     * @return the cached {@link SlotLayout} for the given size and type
+     */
+    public static SlotLayout of(InventorySize size, StaticSlots.Type type) {
+        return PREDEFINED.get(size).get(type);
+    }
+    
+    /**
+     * Creates a layout from a collection of static slots. Duplicates, {@code null} values
+     * and slots outside the range [0, size) are ignored.
+     *
+     * @param size        the inventory size of the layout
+     * @param staticSlots the static slot indices
+     * @return a new {@link SlotLayout}
+     */
+    public static SlotLayout of(InventorySize size, Collection<Integer> staticSlots) {
+        return of(size.getSize(), staticSlots);
+    }
+    
+    /**
+     * Creates a layout from static slot indices. Duplicates and slots outside
+     * the range [0, size) are ignored.
+     *
+     * @param size        the inventory size of the layout
+     * @param staticSlots the static slot indices
+     * @return a new {@link SlotLayout}
+     */
+    public static SlotLayout of(InventorySize size, int... staticSlots) {
+        long mask = 0L;
+        for (int slot : staticSlots) {
+            mask |= bit(slot, size.getSize());
+        }
+        return new SlotLayout(size.getSize(), mask);
+    }
+    
+    /**
+     * Creates a layout from a row pattern, one string of 9 characters per row.
+     * A {@code '.'} or a space marks a dynamic slot, any other character marks a static slot.
+     * Rows shorter than 9 characters are padded with dynamic slots.
+     * <p>
+     * For instance, a bordered menu of 3 rows is described by
+     * {@code "#########", "#.......#", "#########"}.
+     *
+     * @param rows the rows of the pattern, from top to bottom
+     * @return a new {@link SlotLayout} whose size is 9 slots per row
+     * @throws IllegalArgumentException if the pattern has no row, more than 6 rows or a row longer than 9 characters
+     */
+    public static SlotLayout fromPattern(String... rows) {
+        if (rows.length == 0 || rows.length > 6) {
+            throw new IllegalArgumentException("A slot pattern must have between 1 and 6 rows");
+        }
+        
+        long mask = 0L;
+        for (int row = 0; row < rows.length; row++) {
+            String pattern = rows[row];
+            if (pattern.length() > 9) {
+                throw new IllegalArgumentException("A slot pattern row must have at most 9 characters: " + pattern);
+            }
+            for (int column = 0; column < pattern.length(); column++) {
+                char character = pattern.charAt(column);
+                if (character != '.' && character != ' ') {
+                    mask |= 1L << (row * 9 + column);
+                }
+            }
+        }
+        return new SlotLayout(rows.length * 9, mask);
+    }
+    
+    private static SlotLayout of(int size, Collection<Integer> staticSlots) {
+        long mask = 0L;
+        for (Integer slot : staticSlots) {
+            if (slot != null) {
+                mask |= bit(slot, size);
+            }
+        }
+        return new SlotLayout(size, mask);
+    }
+    
+    private static long bit(int slot, int size) {
+        return slot >= 0 && slot < size ? 1L << slot : 0L;
+    }
+    
+    /**
+     * Retrieves the number of slots covered by the layout.
+     *
+     * @return the inventory size of the layout
+     */
+    public int getSize() {
+        return size;
+    }
+    
+    /**
+     * Checks if a slot is static.
+     *
+     * @param slot the slot index
+     * @return {@code true} if the slot is static, {@code false} if it is dynamic or out of range
+     */
+    public boolean isStatic(int slot) {
+        return slot >= 0 && slot < size && (staticMask & (1L << slot)) != 0;
+    }
+    
+    /**
+     * Checks if a slot is dynamic.
+     *
+     * @param slot the slot index
+     * @return {@code true} if the slot is dynamic, {@code false} if it is static or out of range
+     */
+    public boolean isDynamic(int slot) {
+        return slot >= 0 && slot < size && (staticMask & (1L << slot)) == 0;
+    }
+    
+    /**
+     * Retrieves the number of static slots.
+     *
+     * @return the number of static slots
+     */
+    public int getStaticCount() {
+        return staticSlots.length;
+    }
+    
+    /**
+     * Retrieves the number of dynamic slots, which is the number of items displayed per page.
+     *
+     * @return the number of dynamic slots
+     */
+    public int getDynamicCount() {
+        return dynamicSlots.length;
+    }
+    
+    /**
+     * Retrieves a static slot by its index in ascending slot order.
+     *
+     * @param index the index of the static slot, in the range [0, {@link #getStaticCount()})
+     * @return the slot index
+     */
+    public int getStaticSlot(int index) {
+        return staticSlots[index];
+    }
+    
+    /**
+     * Retrieves a dynamic slot by its index in ascending slot order.
+     *
+     * @param index the index of the dynamic slot, in the range [0, {@link #getDynamicCount()})
+     * @return the slot index
+     */
+    public int getDynamicSlot(int index) {
+        return dynamicSlots[index];
+    }
+    
+    /**
+     * Creates a new list of the static slots, in ascending order.
+     *
+     * @return a new list of integers representing the static slots
+     */
+    public List<Integer> getStaticSlots() {
+        List<Integer> list = new ArrayList<>(staticSlots.length);
+        for (int slot : staticSlots) {
+            list.add(slot);
+        }
+        return list;
+    }
+    
+    /**
+     * Creates a new list of the dynamic slots, in ascending order.
+     *
+     * @return a new list of integers representing the dynamic slots
+     */
+    public List<Integer> getDynamicSlots() {
+        List<Integer> list = new ArrayList<>(dynamicSlots.length);
+        for (int slot : dynamicSlots) {
+            list.add(slot);
+        }
+        return list;
+    }
+    
+    @Override
+    public boolean equals(Object o) {
+        if (this == o) return true;
+        if (! (o instanceof SlotLayout other)) return false;
+        return size == other.size && staticMask == other.staticMask;
+    }
+    
+    @Override
+    public int hashCode() {
+        return 31 * size + Long.hashCode(staticMask);
+    }
+}
@@ -20,6 +20,8 @@ import java.util.Set;
  * - combine: Combines two slot lists into one, ensuring no duplicates and filtering slots to a valid range.<br>
  * - getStaticSlots: Creates a new list from specified slot integers.<br>
  * - removeRecurringIntegers: Removes duplicate integers from a list and ensures numbers fall within a valid range.
+ * <p>
+ * For repeated membership tests, prefer the precompiled {@link SlotLayout} of a slot configuration.
  */
 public class StaticSlots {
     
@@ -139,8 +141,12 @@ public class StaticSlots {
      */
     public static List<Integer> removeRecurringIntegers(List<Integer> list, int size) {
         List<Integer> finalList = new ArrayList<>();
+        if (size <= 0) return finalList;
+        
+        boolean[] seen = new boolean[size];
         for (Integer integer : list) {
-            if (integer != null && integer >= 0 && integer < size && ! finalList.contains(integer)) {
+            if (integer != null && integer >= 0 && integer < size && ! seen[integer]) {
+                seen[integer] = true;
                 finalList.add(integer);
             }
         }